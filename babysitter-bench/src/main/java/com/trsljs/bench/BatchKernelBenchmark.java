@@ -0,0 +1,65 @@
+package com.trsljs.bench;
+
+import com.trsljs.service.BatchResult;
+import com.trsljs.service.CalculatorService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@link CalculatorService#calculateJobTotals(int[], int[], int[])} with the branch-free batch kernel
+ * against the same batch calculated by table lookup, selected with {@code -Dbabysitter.batch.kernel=false}.
+ *
+ * @author <a href="mailto:timothyrocksmith@gmail.com">Tim Smith</a>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Thread)
+public class BatchKernelBenchmark {
+    @Param({"8192", "1048576"})
+    private int jobs;
+
+    private final CalculatorService calculatorService = new CalculatorService();
+    private int[] startHours;
+    private int[] bedHours;
+    private int[] endHours;
+
+    @Setup
+    public void createJobs() {
+        startHours = new int[jobs];
+        bedHours = new int[jobs];
+        endHours = new int[jobs];
+        Random random = new Random(42);
+        for (int i = 0; i < jobs; i++) {
+            int start = random.nextInt(11);
+            startHours[i] = (17 + start) % 24;
+            bedHours[i] = (17 + random.nextInt(8)) % 24;
+            endHours[i] = (17 + start + 1 + random.nextInt(11 - start)) % 24;
+        }
+    }
+
+    @Benchmark
+    @Fork(2)
+    public BatchResult kernel() {
+        return calculatorService.calculateJobTotals(startHours, bedHours, endHours);
+    }
+
+    @Benchmark
+    @Fork(value = 2, jvmArgsAppend = "-Dbabysitter.batch.kernel=false")
+    public BatchResult lookUp() {
+        return calculatorService.calculateJobTotals(startHours, bedHours, endHours);
+    }
+}
@@ -0,0 +1,38 @@
+package com.trsljs.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs every benchmark single-threaded and then with one thread per core, with the GC allocation profiler, and saves
+ * each run as JSON in {@code jmh-result-1-threads.json} and {@code jmh-result-<cores>-threads.json} so runs can be
+ * compared. Any JMH command line options given, such as a benchmark name pattern, are applied to both runs.
+ *
+ * @author <a href="mailto:timothyrocksmith@gmail.com">Tim Smith</a>
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads : new int[] {1, cores}) {
+            Options options = new OptionsBuilder()
+                    .parent(commandLine)
+                    .threads(threads)
+                    .addProfiler(GCProfiler.class)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result("jmh-result-" + threads + "-threads.json")
+                    .build();
+            new Runner(options).run();
+            if (cores == 1) {
+                break;
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.trsljs.bench;
+
+import com.trsljs.service.CalculatorService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the {@link CalculatorService} calculation and validation paths.
+ *
+ * @author <a href="mailto:timothyrocksmith@gmail.com">Tim Smith</a>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class CalculatorServiceBenchmark {
+    private static final int JOBS = 1024;
+
+    private final CalculatorService calculatorService = new CalculatorService();
+    private final LocalTime[] startTimes = new LocalTime[JOBS];
+    private final LocalTime[] bedtimes = new LocalTime[JOBS];
+    private final LocalTime[] endTimes = new LocalTime[JOBS];
+    private final int[] startHours = new int[JOBS];
+    private final int[] bedHours = new int[JOBS];
+    private final int[] endHours = new int[JOBS];
+    private int index;
+
+    @Setup
+    public void createJobs() {
+        Random random = new Random(42);
+        for (int i = 0; i < JOBS; i++) {
+            int start = random.nextInt(11);
+            startHours[i] = (17 + start) % 24;
+            bedHours[i] = (17 + random.nextInt(8)) % 24;
+            endHours[i] = (17 + start + 1 + random.nextInt(11 - start)) % 24;
+            startTimes[i] = LocalTime.of(startHours[i], 0);
+            bedtimes[i] = LocalTime.of(bedHours[i], 0);
+            endTimes[i] = LocalTime.of(endHours[i], 0);
+        }
+    }
+
+    private int next() {
+        index = (index + 1) & (JOBS - 1);
+        return index;
+    }
+
+    @Benchmark
+    public String calculateJobTotal() {
+        int i = next();
+        return calculatorService.calculateJobTotal(startTimes[i], bedtimes[i], endTimes[i]);
+    }
+
+    @Benchmark
+    public int calculateJobTotalCents() {
+        int i = next();
+        return calculatorService.calculateJobTotalCents(startHours[i], bedHours[i], endHours[i]);
+    }
+
+    @Benchmark
+    public int findLatestEndHour() {
+        int i = next();
+        return calculatorService.findLatestEndHour(startHours[i], bedHours[i], 1000 + 10 * i);
+    }
+
+    @Benchmark
+    public boolean isStartTimeAfterEndTime() {
+        int i = next();
+        return calculatorService.isStartTimeAfterEndTime(startTimes[i], endTimes[i]);
+    }
+}
@@ -0,0 +1,65 @@
+package com.trsljs.bench;
+
+import com.trsljs.payroll.Engagement;
+import com.trsljs.payroll.PayrollEngine;
+import com.trsljs.payroll.PayrollLine;
+import com.trsljs.service.CalculatorService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of a week of {@link PayrollEngine} payroll for 10,000 sitters, each with a mix of single night and
+ * multi-night engagements.
+ *
+ * @author <a href="mailto:timothyrocksmith@gmail.com">Tim Smith</a>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class PayrollEngineBenchmark {
+    private static final int SITTERS = 10_000;
+
+    private final PayrollEngine payrollEngine = new PayrollEngine(new CalculatorService());
+    private final List<Engagement> engagements = new ArrayList<>();
+
+    @Setup
+    public void createEngagements() {
+        Random random = new Random(42);
+        LocalDateTime monday = LocalDateTime.of(2024, 3, 4, 0, 0);
+        for (int sitter = 0; sitter < SITTERS; sitter++) {
+            String sitterId = "sitter-" + sitter;
+            int day = 0;
+            while (day < 7) {
+                int nights = 1 + random.nextInt(3);
+                LocalDateTime start = monday.plusDays(day).plusHours(17 + random.nextInt(4))
+                        .plusMinutes(random.nextInt(4) * 15);
+                LocalDateTime end = monday.plusDays(day + nights - 1).plusHours(22 + random.nextInt(7));
+                engagements.add(new Engagement(sitterId, start, end, LocalTime.of(20 + random.nextInt(4), 0)));
+                day += nights + random.nextInt(2);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<PayrollLine> weeklyPayroll() {
+        return payrollEngine.calculate(engagements);
+    }
+}
@@ -0,0 +1,82 @@
+package com.trsljs.bench;
+
+import com.trsljs.util.TimeUtilities;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Vector;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the {@link TimeUtilities} time adjustment, combobox list and parsing paths, including the
+ * {@code LocalTime.parse} path the GUI used on every selection.
+ *
+ * @author <a href="mailto:timothyrocksmith@gmail.com">Tim Smith</a>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class TimeUtilitiesBenchmark {
+    private String[] texts;
+    private LocalTime[] times;
+    private int index;
+
+    @Setup
+    public void createTimes() {
+        List<String> validTimes = TimeUtilities.getValidStartTimes();
+        validTimes.remove(0);
+        texts = validTimes.toArray(new String[0]);
+        times = new LocalTime[texts.length];
+        for (int i = 0; i < texts.length; i++) {
+            times[i] = LocalTime.parse(texts[i], TimeUtilities.TIME_FORMATTER);
+        }
+    }
+
+    private int next() {
+        index = index + 1 == texts.length ? 0 : index + 1;
+        return index;
+    }
+
+    @Benchmark
+    public LocalTime adjustTimePeriod() {
+        return TimeUtilities.adjustTimePeriod(times[next()]);
+    }
+
+    @Benchmark
+    public Vector<String> getValidStartTimes() {
+        return TimeUtilities.getValidStartTimes();
+    }
+
+    @Benchmark
+    public Vector<String> getValidBedtimes() {
+        return TimeUtilities.getValidBedtimes();
+    }
+
+    @Benchmark
+    public Vector<String> getValidEndTimes() {
+        return TimeUtilities.getValidEndTimes();
+    }
+
+    @Benchmark
+    public LocalTime parseWithFormatter() {
+        return LocalTime.parse(texts[next()], TimeUtilities.TIME_FORMATTER);
+    }
+
+    @Benchmark
+    public int parseTime() {
+        return TimeUtilities.parseTime(texts[next()]);
+    }
+}
@@ -1,15 +1,18 @@
 package com.trsljs;
 
 import com.trsljs.service.CalculatorService;
+import com.trsljs.util.JobValidation;
+import com.trsljs.util.JobValidator;
 import com.trsljs.util.TimeUtilities;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.lang.management.ManagementFactory;
 import java.time.LocalTime;
 import java.util.Objects;
-import java.util.Vector;
+import java.util.logging.Logger;
 
 /**
  * Main Class and GUI for the Babysitting Job Calculator
@@ -17,9 +20,14 @@ import java.util.Vector;
  * @author <a href="mailto:timothyrocksmith@gmail.com">Tim Smith</a>
  */
 public class BabysittingJobCalculator extends JFrame implements ActionListener {
-    private JComboBox<String> startTimeInput;
-    private JComboBox<String> bedTimeInput;
-    private JComboBox<String> endTimeInput;
+    private static final Logger LOGGER = Logger.getLogger(BabysittingJobCalculator.class.getName());
+
+    private final TimeComboBoxModel startTimeModel = new TimeComboBoxModel();
+    private final TimeComboBoxModel bedTimeModel = new TimeComboBoxModel();
+    private final TimeComboBoxModel endTimeModel = new TimeComboBoxModel();
+    private JComboBox<LocalTime> startTimeInput;
+    private JComboBox<LocalTime> bedTimeInput;
+    private JComboBox<LocalTime> endTimeInput;
     private JLabel resultMessage;
     private JButton calcButton;
     private JButton resetButton;
@@ -47,11 +55,25 @@ public class BabysittingJobCalculator extends JFrame implements ActionListener {
         this.setVisible(true);
         this.setLocation(width, height);
         this.setLocationRelativeTo(null);
+
+        // The frame is already showing, fill in the choices on the next turn of the event queue.
+        SwingUtilities.invokeLater(this::populateModels);
     }
 
     public static void main(String[] args )
     {
-        new BabysittingJobCalculator().setVisible(true);
+        if (args.length > 0) {
+            Launcher.main(args);
+            return;
+        }
+        open();
+    }
+
+    /**
+     * Opens the calculator window on the event dispatch thread.
+     */
+    static void open() {
+        SwingUtilities.invokeLater(BabysittingJobCalculator::new);
     }
 
     @Override
@@ -78,7 +100,20 @@ public class BabysittingJobCalculator extends JFrame implements ActionListener {
      * Creates and populates the GUI Components
      */
     private void initComponents() {
-        JPanel mainPanel = new JPanel();
+        JPanel mainPanel = new JPanel() {
+            private boolean painted;
+
+            @Override
+            protected void paintComponent(Graphics g) {
+                super.paintComponent(g);
+                if (!painted) {
+                    painted = true;
+                    // measured from JVM start, so class loading and initialization before main count too
+                    LOGGER.info(String.format("Time to first paint: %d ms",
+                            System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime()));
+                }
+            }
+        };
         mainPanel.setLayout(new BorderLayout());
         mainPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
 
@@ -87,17 +122,17 @@ public class BabysittingJobCalculator extends JFrame implements ActionListener {
         inputPanel.setBorder(BorderFactory.createEmptyBorder(5, 0, 5, 50));
 
         inputPanel.add(createInputLabel("Start Time:", startTimeInput));
-        startTimeInput = createCombobox(TimeUtilities.getValidStartTimes());
+        startTimeInput = createCombobox(startTimeModel);
         startTimeInput.addActionListener(this);
         inputPanel.add(startTimeInput);
 
         inputPanel.add(createInputLabel("Bed Time:", bedTimeInput));
-        bedTimeInput = createCombobox(TimeUtilities.getValidBedtimes());
+        bedTimeInput = createCombobox(bedTimeModel);
         bedTimeInput.addActionListener(this);
         inputPanel.add(bedTimeInput);
 
         inputPanel.add(createInputLabel("End Time:", endTimeInput));
-        endTimeInput = createCombobox(TimeUtilities.getValidEndTimes());
+        endTimeInput = createCombobox(endTimeModel);
         endTimeInput.addActionListener(this);
         inputPanel.add(endTimeInput);
 
@@ -135,6 +170,15 @@ public class BabysittingJobCalculator extends JFrame implements ActionListener {
         pack();
     }
 
+    /**
+     * Fills the comboboxes with the precomputed valid times.
+     */
+    private void populateModels() {
+        startTimeModel.setTimes(TimeUtilities.VALID_START_TIMES);
+        bedTimeModel.setTimes(TimeUtilities.VALID_BEDTIMES);
+        endTimeModel.setTimes(TimeUtilities.VALID_END_TIMES);
+    }
+
     /**
      * Resets all fields and variable to the initial state
      */
@@ -152,10 +196,10 @@ public class BabysittingJobCalculator extends JFrame implements ActionListener {
      * Creates a {@link JLabel} with common settings for consistency in the look and feel
      *
      * @param labelText the {@link JLabel#getText()} to display on the label.
-     * @param input the {@link JComboBox<String>} to associate the label with.
+     * @param input the {@link JComboBox<LocalTime>} to associate the label with.
      * @return the configured {@link JLabel}
      */
-    private JLabel createInputLabel(String labelText, JComboBox<String> input) {
+    private JLabel createInputLabel(String labelText, JComboBox<LocalTime> input) {
         JLabel label = new JLabel(labelText);
         Dimension dimension = new Dimension(100, 25);
         label.setHorizontalAlignment(SwingConstants.RIGHT);
@@ -171,11 +215,12 @@ public class BabysittingJobCalculator extends JFrame implements ActionListener {
     /**
      * Creates a {@link JComboBox} with common settings for consistency in the look and feel
      *
-     * @param model the {@link Vector<String>} to populate the combobox model with.
-     * @return the configured {@link JComboBox<String>}
+     * @param model the {@link TimeComboBoxModel} holding the times of the combobox.
+     * @return the configured {@link JComboBox<LocalTime>}
      */
-    private JComboBox<String> createCombobox(Vector<String> model) {
-        JComboBox<String > comboBox = new JComboBox<>(model);
+    private JComboBox<LocalTime> createCombobox(TimeComboBoxModel model) {
+        JComboBox<LocalTime> comboBox = new JComboBox<>(model);
+        comboBox.setRenderer(model.createRenderer());
         Dimension dimension = new Dimension(100, 25);
         comboBox.setSize(dimension);
         comboBox.setMaximumSize(dimension);
@@ -205,9 +250,9 @@ public class BabysittingJobCalculator extends JFrame implements ActionListener {
      * Retrieve the selected time values and pass the to the {@link CalculatorService} to calculate total job charge.
      */
     private void performCalculations() {
-        LocalTime startTime = LocalTime.parse((String) Objects.requireNonNull(startTimeInput.getSelectedItem()), TimeUtilities.TIME_FORMATTER);
-        LocalTime bedTime = LocalTime.parse((String) Objects.requireNonNull(bedTimeInput.getSelectedItem()), TimeUtilities.TIME_FORMATTER);
-        LocalTime endTime = LocalTime.parse((String) Objects.requireNonNull(endTimeInput.getSelectedItem()), TimeUtilities.TIME_FORMATTER);
+        LocalTime startTime = Objects.requireNonNull(startTimeModel.getSelectedTime());
+        LocalTime bedTime = Objects.requireNonNull(bedTimeModel.getSelectedTime());
+        LocalTime endTime = Objects.requireNonNull(endTimeModel.getSelectedTime());
 
         resultMessage.setText(calculatorService.calculateJobTotal(startTime, bedTime, endTime));
     }
@@ -229,9 +274,9 @@ public class BabysittingJobCalculator extends JFrame implements ActionListener {
      */
     private void validateStartSelection() {
         if (startTimeInput.getSelectedIndex() > 0 && endTimeInput.getSelectedIndex() > 0) {
-            LocalTime startTime = LocalTime.parse((String) Objects.requireNonNull(startTimeInput.getSelectedItem()), TimeUtilities.TIME_FORMATTER);
-            LocalTime endTime = LocalTime.parse((String) Objects.requireNonNull(endTimeInput.getSelectedItem()), TimeUtilities.TIME_FORMATTER);
-            if (calculatorService.isStartTimeAfterEndTime(startTime, endTime)) {
+            LocalTime startTime = startTimeModel.getSelectedTime();
+            LocalTime endTime = endTimeModel.getSelectedTime();
+            if (JobValidator.validate(startTime, null, endTime) == JobValidation.START_AFTER_END) {
                 JOptionPane.showMessageDialog(this, "Start Time must be before End Time.",
                         "Error", JOptionPane.ERROR_MESSAGE);
                 enableStart = false;
@@ -247,9 +292,9 @@ public class BabysittingJobCalculator extends JFrame implements ActionListener {
      */
     private void validateEndSelection() {
         if (startTimeInput.getSelectedIndex() > 0 && endTimeInput.getSelectedIndex() > 0) {
-            LocalTime startTime = LocalTime.parse((String) Objects.requireNonNull(startTimeInput.getSelectedItem()), TimeUtilities.TIME_FORMATTER);
-            LocalTime endTime = LocalTime.parse((String) Objects.requireNonNull(endTimeInput.getSelectedItem()), TimeUtilities.TIME_FORMATTER);
-            if (calculatorService.isStartTimeAfterEndTime(startTime, endTime)) {
+            LocalTime startTime = startTimeModel.getSelectedTime();
+            LocalTime endTime = endTimeModel.getSelectedTime();
+            if (JobValidator.validate(startTime, null, endTime) == JobValidation.START_AFTER_END) {
                 JOptionPane.showMessageDialog(this, "End Time must be after Start Time.",
                         "Error", JOptionPane.ERROR_MESSAGE);
                 enableEnd = false;
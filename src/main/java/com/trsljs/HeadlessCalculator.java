@@ -0,0 +1,102 @@
+package com.trsljs;
+
+import com.trsljs.service.RateSchedule;
+import com.trsljs.util.JobValidation;
+import com.trsljs.util.JobValidator;
+import com.trsljs.util.TimeUtilities;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * Command line entry point calculating the total of one job, for short-lived calls from scripts. It only touches
+ * the rate tables, the validator and the formatter, never Swing or AWT, and uses no reflection, so it starts quickly
+ * on the JVM and builds as a GraalVM native image (see the native profile of the pom). The image initializes the
+ * tables at run time, so times and totals are formatted in the locale the binary runs in.
+ * <pre>
+ * HeadlessCalculator [--cents] [--rates &lt;rates.properties&gt;] &lt;start&gt; &lt;bedtime&gt; &lt;end&gt;
+ * </pre>
+ * The times are given as e.g. "05:00 PM" and must be on the hour. The total is printed in the currency of the
+ * default locale, or in cents with {@code --cents}. An invalid job, including one with a time that is not on the
+ * hour, prints the reason to standard error and exits with status 1; wrong arguments exit with status 2.
+ *
+ * @author <a href="mailto:timothyrocksmith@gmail.com">Tim Smith</a>
+ */
+public class HeadlessCalculator {
+    static final int EXIT_INVALID_JOB = 1;
+    static final int EXIT_USAGE = 2;
+
+    private static final String USAGE =
+            "Usage: [--cents] [--rates <rates.properties>] <start time> <bedtime> <end time>, e.g. \"05:00 PM\"";
+
+    private HeadlessCalculator() {
+    }
+
+    public static void main(String[] args) {
+        int status = run(args, System.out, System.err);
+        if (status != 0) {
+            System.exit(status);
+        }
+    }
+
+    /**
+     * Calculates the job given by the arguments.
+     *
+     * @param args the command line arguments.
+     * @param out the {@link PrintStream} to print the total to.
+     * @param err the {@link PrintStream} to print errors to.
+     * @return the exit status, 0 if the total was printed.
+     */
+    static int run(String[] args, PrintStream out, PrintStream err) {
+        boolean cents = false;
+        String rates = null;
+        int first = 0;
+        while (first < args.length && args[first].startsWith("--")) {
+            if ("--cents".equals(args[first])) {
+                cents = true;
+                first++;
+            } else if ("--rates".equals(args[first]) && first + 1 < args.length) {
+                rates = args[first + 1];
+                first += 2;
+            } else {
+                err.println(USAGE);
+                return EXIT_USAGE;
+            }
+        }
+        if (args.length - first != 3) {
+            err.println(USAGE);
+            return EXIT_USAGE;
+        }
+        int[] minutes = new int[3];
+        for (int i = 0; i < 3; i++) {
+            minutes[i] = TimeUtilities.tryParseTime(args[first + i].trim());
+            if (minutes[i] < 0) {
+                err.println("Invalid time '" + args[first + i] + "'.");
+                return EXIT_USAGE;
+            }
+        }
+        JobValidation validation = JobValidator.validateWholeHours(minutes[0], minutes[1], minutes[2]);
+        if (!validation.isValid()) {
+            err.println(validation.getMessage());
+            return EXIT_INVALID_JOB;
+        }
+
+        RateSchedule schedule;
+        try {
+            schedule = rates != null ? RateSchedule.load(Paths.get(rates)) : RateSchedule.DEFAULT;
+        } catch (IOException | IllegalArgumentException e) {
+            err.println("Unable to load rates " + rates + ": " + e.getMessage());
+            return EXIT_USAGE;
+        }
+        int totalCents = schedule.jobTotalCents(TimeUtilities.hourOf(minutes[0]), TimeUtilities.hourOf(minutes[1]),
+                TimeUtilities.hourOf(minutes[2]));
+        if (cents) {
+            out.println(totalCents);
+        } else {
+            out.println(schedule.getTotalFormatter(Locale.getDefault(Locale.Category.FORMAT)).format(totalCents));
+        }
+        return 0;
+    }
+}
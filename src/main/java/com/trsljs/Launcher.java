@@ -0,0 +1,32 @@
+package com.trsljs;
+
+import com.trsljs.batch.BatchBillingJob;
+import com.trsljs.server.QuoteServer;
+
+import java.util.Arrays;
+
+/**
+ * Main Class of the jar, choosing the mode from the first argument without loading the GUI unless it is wanted:
+ * {@code --batch} bills a file, see {@link BatchBillingJob}, {@code --serve} starts the {@link QuoteServer},
+ * {@code --calculate} calculates one job, see {@link HeadlessCalculator}, and no arguments open the
+ * {@link BabysittingJobCalculator} window.
+ *
+ * @author <a href="mailto:timothyrocksmith@gmail.com">Tim Smith</a>
+ */
+public class Launcher {
+
+    private Launcher() {
+    }
+
+    public static void main(String[] args) {
+        if (args.length > 0 && "--batch".equals(args[0])) {
+            BatchBillingJob.main(args);
+        } else if (args.length > 0 && "--serve".equals(args[0])) {
+            QuoteServer.main(args);
+        } else if (args.length > 0 && "--calculate".equals(args[0])) {
+            HeadlessCalculator.main(Arrays.copyOfRange(args, 1, args.length));
+        } else {
+            BabysittingJobCalculator.open();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.trsljs;
+
+import com.trsljs.util.TimeUtilities;
+
+import javax.swing.*;
+import java.awt.*;
+import java.time.LocalTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@link ComboBoxModel} holding typed {@link LocalTime} values so selections never have to be parsed back from text.
+ * The first element is always a blank {@code null} entry meaning nothing has been chosen. The display label of each
+ * time is rendered once when the times are set.
+ *
+ * @author <a href="mailto:timothyrocksmith@gmail.com">Tim Smith</a>
+ */
+class TimeComboBoxModel extends AbstractListModel<LocalTime> implements ComboBoxModel<LocalTime> {
+    private List<LocalTime> times = Collections.emptyList();
+    private String[] labels = new String[0];
+    private Object selectedItem;
+
+    /**
+     * Replaces the times of the model.
+     *
+     * @param times the immutable {@link List<LocalTime>} of times to choose from.
+     */
+    void setTimes(List<LocalTime> times) {
+        int oldSize = getSize();
+        String[] newLabels = new String[times.size()];
+        for (int i = 0; i < newLabels.length; i++) {
+            LocalTime time = times.get(i);
+            newLabels[i] = TimeUtilities.formatTime(time.getHour() * 60 + time.getMinute());
+        }
+        this.times = times;
+        this.labels = newLabels;
+        if (oldSize > 0) {
+            fireIntervalRemoved(this, 0, oldSize - 1);
+        }
+        fireIntervalAdded(this, 0, getSize() - 1);
+    }
+
+    @Override
+    public int getSize() {
+        return times.size() + 1;
+    }
+
+    @Override
+    public LocalTime getElementAt(int index) {
+        return index == 0 ? null : times.get(index - 1);
+    }
+
+    @Override
+    public void setSelectedItem(Object item) {
+        if (item != selectedItem) {
+            selectedItem = item;
+            fireContentsChanged(this, -1, -1);
+        }
+    }
+
+    @Override
+    public Object getSelectedItem() {
+        return selectedItem;
+    }
+
+    /**
+     * @return the selected {@link LocalTime}, or null if nothing has been chosen.
+     */
+    LocalTime getSelectedTime() {
+        return (LocalTime) selectedItem;
+    }
+
+    /**
+     * @return a {@link ListCellRenderer} showing the pre-rendered label of each time of this model.
+     */
+    ListCellRenderer<Object> createRenderer() {
+        return new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                          boolean isSelected, boolean cellHasFocus) {
+                int position = value == null ? -1 : times.indexOf(value);
+                return super.getListCellRendererComponent(list, position < 0 ? "" : labels[position], index,
+                        isSelected, cellHasFocus);
+            }
+        };
+    }
+}
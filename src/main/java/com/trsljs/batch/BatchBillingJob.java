@@ -0,0 +1,335 @@
+package com.trsljs.batch;
+
+import com.trsljs.ledger.JobLedger;
+import com.trsljs.metrics.CalculatorMetrics;
+import com.trsljs.service.CalculatorService;
+import com.trsljs.service.JobTotal;
+import com.trsljs.service.RateSchedule;
+import com.trsljs.util.JobValidation;
+import com.trsljs.util.JobValidator;
+import com.trsljs.util.TimeUtilities;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Headless billing job that streams a file of shifts through the {@link CalculatorService}.
+ * Each input row holds the start time, bedtime and end time formatted with {@link TimeUtilities#TIME_FORMATTER}
+ * separated by commas. Each valid row is written to the output file followed by its total, each invalid row is
+ * written to the reject file with its line number and the reason, and processing continues. Totals are billed in
+ * whole hours, so a row with a time that is not on the hour is rejected rather than having the part hour dropped.
+ * The input is read through a sliding window: a single 4MB direct buffer, allocated with the job and reused for
+ * every window of every run, is refilled from the file channel, so memory use does not grow with the file size and
+ * nothing is left for the garbage collector to release. A line must fit in the window.
+ * When a {@link JobLedger} is set every valid row is also journaled to it with its line number as the reference.
+ *
+ * @author <a href="mailto:timothyrocksmith@gmail.com">Tim Smith</a>
+ */
+public class BatchBillingJob {
+    private static final int DEFAULT_WINDOW_SIZE = 4 * 1024 * 1024;
+    private static final int OUTPUT_BUFFER_SIZE = 256 * 1024;
+    private static final int MAX_LINE_LENGTH = 1024;
+
+    private final CalculatorService calculatorService;
+    private final ByteBuffer window;
+
+    private JobLedger ledger;
+
+    private final byte[] line = new byte[MAX_LINE_LENGTH];
+    private ByteBuffer output;
+    private ByteBuffer rejects;
+    private FileChannel outputChannel;
+    private FileChannel rejectChannel;
+    private long rows;
+    private long rejectedRows;
+    private long sumCents;
+
+    public BatchBillingJob() {
+        this(new CalculatorService());
+    }
+
+    /**
+     * @param calculatorService the {@link CalculatorService} to calculate totals with.
+     */
+    public BatchBillingJob(CalculatorService calculatorService) {
+        this(calculatorService, DEFAULT_WINDOW_SIZE);
+    }
+
+    BatchBillingJob(CalculatorService calculatorService, int windowSize) {
+        this.calculatorService = calculatorService;
+        this.window = ByteBuffer.allocateDirect(windowSize);
+    }
+
+    /**
+     * Runs the job from the command line arguments
+     * {@code --batch <input> --out <output> [--rejects <rejects>] [--rates <schedule>] [--ledger <directory>]}.
+     * The reject file defaults to the output file name followed by {@code .rejects}, the rates default to
+     * {@link RateSchedule#DEFAULT} and no ledger is written unless a directory is given.
+     *
+     * @param args the command line arguments.
+     */
+    public static void main(String[] args) {
+        String input = null;
+        String out = null;
+        String rejects = null;
+        String rates = null;
+        String ledgerDirectory = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if ("--batch".equals(args[i])) {
+                input = args[i + 1];
+            } else if ("--out".equals(args[i])) {
+                out = args[i + 1];
+            } else if ("--rejects".equals(args[i])) {
+                rejects = args[i + 1];
+            } else if ("--rates".equals(args[i])) {
+                rates = args[i + 1];
+            } else if ("--ledger".equals(args[i])) {
+                ledgerDirectory = args[i + 1];
+            }
+        }
+        if (input == null || out == null) {
+            System.err.println("Usage: --batch <input.csv> --out <totals.csv> [--rejects <rejects.csv>] [--rates <rates.properties>] [--ledger <directory>]");
+            System.exit(1);
+        }
+        try {
+            CalculatorMetrics.registerMBeans();
+            RateSchedule schedule = rates != null ? RateSchedule.load(Paths.get(rates)) : RateSchedule.DEFAULT;
+            BatchBillingJob job = new BatchBillingJob(new CalculatorService(schedule));
+            JobLedger jobLedger = ledgerDirectory != null ? JobLedger.open(Paths.get(ledgerDirectory)) : null;
+            try {
+                job.setLedger(jobLedger);
+                job.run(Paths.get(input), Paths.get(out), Paths.get(rejects != null ? rejects : out + ".rejects"));
+            } finally {
+                if (jobLedger != null) {
+                    jobLedger.close();
+                }
+            }
+            System.out.println("Rows: " + job.getRows() + ", rejected: " + job.getRejectedRows()
+                    + ", total: " + formatCents(job.getSumCents()) + ", rates: " + schedule.getVersion());
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Batch failed: " + e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Streams the input file to the output and reject files.
+     *
+     * @param input the {@link Path} of the shift file to read.
+     * @param out the {@link Path} of the totals file to write.
+     * @param rejectsFile the {@link Path} of the reject file to write.
+     * @throws IOException if a file cannot be read or written, or a line exceeds the maximum length.
+     */
+    public void run(Path input, Path out, Path rejectsFile) throws IOException {
+        rows = 0;
+        rejectedRows = 0;
+        sumCents = 0;
+        output = ByteBuffer.allocateDirect(OUTPUT_BUFFER_SIZE);
+        rejects = ByteBuffer.allocateDirect(OUTPUT_BUFFER_SIZE);
+        try (FileChannel inputChannel = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel outChannel = openForWrite(out);
+             FileChannel rejectsChannel = openForWrite(rejectsFile)) {
+            outputChannel = outChannel;
+            rejectChannel = rejectsChannel;
+            long size = inputChannel.size();
+            long position = 0;
+            long lineNumber = 0;
+            while (position < size) {
+                int length = fillWindow(inputChannel, position, (int) Math.min(window.capacity(), size - position));
+                boolean lastWindow = position + length == size;
+                int lineStart = 0;
+                for (int i = 0; i < length; i++) {
+                    if (window.get(i) == '\n') {
+                        processLine(window, lineStart, i, ++lineNumber);
+                        lineStart = i + 1;
+                    }
+                }
+                if (lastWindow && lineStart < length) {
+                    processLine(window, lineStart, length, ++lineNumber);
+                    lineStart = length;
+                } else if (lineStart == 0 && !lastWindow) {
+                    throw new IOException("Line " + (lineNumber + 1) + " exceeds the window size.");
+                }
+                position += lineStart;
+            }
+            flush(output, outputChannel);
+            flush(rejects, rejectChannel);
+            if (ledger != null) {
+                ledger.sync();
+            }
+        }
+    }
+
+    /**
+     * Reads the bytes of the file from the position into the start of the window.
+     *
+     * @return the number of bytes read.
+     * @throws IOException if the file cannot be read or ends early because it was truncated meanwhile.
+     */
+    private int fillWindow(FileChannel channel, long position, int length) throws IOException {
+        window.clear().limit(length);
+        while (window.hasRemaining()) {
+            if (channel.read(window, position + window.position()) < 0) {
+                throw new IOException("Input ended at byte " + (position + window.position()) + " while being read.");
+            }
+        }
+        return length;
+    }
+
+    /**
+     * @param ledger the {@link JobLedger} to journal every valid row to, or null to not journal.
+     */
+    public void setLedger(JobLedger ledger) {
+        this.ledger = ledger;
+    }
+
+    /**
+     * @return the number of rows written to the output file by the last run.
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * @return the number of rows written to the reject file by the last run.
+     */
+    public long getRejectedRows() {
+        return rejectedRows;
+    }
+
+    /**
+     * @return the sum of all totals in cents written by the last run.
+     */
+    public long getSumCents() {
+        return sumCents;
+    }
+
+    private void processLine(ByteBuffer window, int from, int to, long lineNumber) throws IOException {
+        if (to > from && window.get(to - 1) == '\r') {
+            to--;
+        }
+        int length = to - from;
+        if (length == 0) {
+            return;
+        }
+        if (length > MAX_LINE_LENGTH) {
+            reject(lineNumber, "Line too long", line, 0);
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            line[i] = window.get(from + i);
+        }
+        int firstComma = indexOf(window, from, to, (byte) ',');
+        int secondComma = firstComma < 0 ? -1 : indexOf(window, firstComma + 1, to, (byte) ',');
+        if (secondComma < 0 || indexOf(window, secondComma + 1, to, (byte) ',') >= 0) {
+            reject(lineNumber, "Expected start time, bedtime and end time", line, length);
+            return;
+        }
+        int start = parseField(window, from, firstComma);
+        int bed = parseField(window, firstComma + 1, secondComma);
+        int end = parseField(window, secondComma + 1, to);
+        if (start < 0 || bed < 0 || end < 0) {
+            reject(lineNumber, "Invalid time", line, length);
+            return;
+        }
+        JobValidation validation = JobValidator.validateWholeHours(start, bed, end);
+        if (!validation.isValid()) {
+            reject(lineNumber, validation.getMessage(), line, length);
+            return;
+        }
+        /*
+         * The total and the version journaled with it come from the same schedule, even if it is reloaded meanwhile.
+         */
+        JobTotal total = calculatorService.quoteJobTotal(
+                TimeUtilities.hourOf(start), TimeUtilities.hourOf(bed), TimeUtilities.hourOf(end));
+        int totalCents = total.getTotalCents();
+        if (ledger != null) {
+            ledger.append(lineNumber, TimeUtilities.hourOf(start), TimeUtilities.hourOf(bed),
+                    TimeUtilities.hourOf(end), totalCents, total.getScheduleVersion());
+        }
+        ensureCapacity(output, outputChannel, length + 16);
+        output.put(line, 0, length).put((byte) ',');
+        putCents(output, totalCents);
+        output.put((byte) '\n');
+        rows++;
+        sumCents += totalCents;
+    }
+
+    /**
+     * Parses a field of a row, ignoring surrounding spaces.
+     *
+     * @return the minute of the day, or a negative value if the field is not a valid time.
+     */
+    private static int parseField(ByteBuffer window, int from, int to) {
+        while (from < to && window.get(from) == ' ') {
+            from++;
+        }
+        while (to > from && window.get(to - 1) == ' ') {
+            to--;
+        }
+        return TimeUtilities.tryParseTime(window, from, to - from);
+    }
+
+    private static int indexOf(ByteBuffer window, int from, int to, byte value) {
+        for (int i = from; i < to; i++) {
+            if (window.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void reject(long lineNumber, String reason, byte[] row, int length) throws IOException {
+        byte[] prefix = (lineNumber + "," + reason.replace(',', ';') + ",").getBytes(StandardCharsets.US_ASCII);
+        ensureCapacity(rejects, rejectChannel, prefix.length + length + 1);
+        rejects.put(prefix).put(row, 0, length).put((byte) '\n');
+        rejectedRows++;
+    }
+
+    /**
+     * Writes cents as a plain decimal amount of dollars, i.e. 10400 as 104.00.
+     */
+    private static void putCents(ByteBuffer buffer, int cents) {
+        int dollars = cents / 100;
+        int remainder = cents % 100;
+        putDigits(buffer, dollars);
+        buffer.put((byte) '.');
+        buffer.put((byte) ('0' + remainder / 10));
+        buffer.put((byte) ('0' + remainder % 10));
+    }
+
+    private static void putDigits(ByteBuffer buffer, int value) {
+        if (value >= 10) {
+            putDigits(buffer, value / 10);
+        }
+        buffer.put((byte) ('0' + value % 10));
+    }
+
+    private static String formatCents(long cents) {
+        return String.format("%d.%02d", cents / 100, cents % 100);
+    }
+
+    private static void ensureCapacity(ByteBuffer buffer, FileChannel channel, int needed) throws IOException {
+        if (buffer.remaining() < needed) {
+            flush(buffer, channel);
+        }
+    }
+
+    private static void flush(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static FileChannel openForWrite(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+}
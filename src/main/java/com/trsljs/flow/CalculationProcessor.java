@@ -0,0 +1,308 @@
+package com.trsljs.flow;
+
+import com.trsljs.service.BatchResult;
+import com.trsljs.service.CalculatorService;
+import com.trsljs.service.JobTotal;
+import com.trsljs.util.ExecutorUtilities;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reactive stage calculating the total of every {@link ShiftEvent} it receives and publishing it as a
+ * {@link ShiftTotal}, in the order received.
+ * <p>
+ * Demand is bounded: the processor never requests more events from upstream than it can buffer, and asks for more
+ * only as batches are calculated and published. Buffered events are drained in batches of up to the maximum batch
+ * size through {@link CalculatorService#calculateJobTotals(int[], int[], int[])} on the executor, one batch at a
+ * time. Each subscriber's buffer is bounded too, and publishing to a full buffer waits for the subscriber, which in
+ * turn holds back demand upstream. Memory therefore stays bounded however far the feed outruns the subscribers.
+ * <p>
+ * The executor also delivers totals to the subscribers while a batch waits to publish, so it needs at least two
+ * threads; a pool of virtual threads from {@link #virtualThreadExecutor()} or a dedicated pool both do.
+ *
+ * @author <a href="mailto:timothyrocksmith@gmail.com">Tim Smith</a>
+ */
+public class CalculationProcessor extends SubmissionPublisher<ShiftTotal>
+        implements Flow.Processor<ShiftEvent, ShiftTotal>, CalculationProcessorMBean {
+    public static final int DEFAULT_MAX_BUFFERED_EVENTS = 8192;
+    public static final int DEFAULT_MAX_BATCH_SIZE = 1024;
+
+    private final CalculatorService calculatorService;
+    private final Executor executor;
+    private final int maxBufferedEvents;
+    private final int maxBatchSize;
+    private final ArrayBlockingQueue<ShiftEvent> events;
+    private final AtomicInteger drainRequests = new AtomicInteger();
+    private final long createdNanos = System.nanoTime();
+
+    /*
+     * Only the thread draining the queue uses these, so they are reused for every batch. A full batch is calculated
+     * from the hour arrays themselves; only a shorter one is copied, to the length calculateJobTotals expects.
+     */
+    private final ShiftEvent[] batch;
+    private final int[] startHours;
+    private final int[] bedHours;
+    private final int[] endHours;
+
+    private final LongAdder receivedEvents = new LongAdder();
+    private final LongAdder publishedTotals = new LongAdder();
+    private final LongAdder invalidEvents = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAccumulator maxQueueDepth = new LongAccumulator(Math::max, 0);
+
+    private volatile Flow.Subscription subscription;
+    private volatile boolean upstreamDone;
+    private volatile Throwable upstreamError;
+    private boolean closed;
+
+    /**
+     * Creates a processor with the default buffer and batch sizes, calculating and publishing on the executor.
+     *
+     * @param calculatorService the {@link CalculatorService} to calculate totals with.
+     * @param executor the {@link ExecutorService} to calculate and publish on, e.g. {@link #virtualThreadExecutor()}.
+     */
+    public CalculationProcessor(CalculatorService calculatorService, ExecutorService executor) {
+        this(calculatorService, executor, DEFAULT_MAX_BUFFERED_EVENTS, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    /**
+     * @param calculatorService the {@link CalculatorService} to calculate totals with.
+     * @param executor the {@link ExecutorService} to calculate and publish on, e.g. {@link #virtualThreadExecutor()}.
+     * @param maxBufferedEvents the most events requested from upstream but not yet calculated, which is also the
+     *                          most totals buffered for each subscriber.
+     * @param maxBatchSize the most events calculated in one batch.
+     * @throws IllegalArgumentException if a size is not positive.
+     */
+    public CalculationProcessor(CalculatorService calculatorService, ExecutorService executor, int maxBufferedEvents,
+                                int maxBatchSize) {
+        super(executor, maxBufferedEvents);
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Maximum batch size must be positive.");
+        }
+        this.calculatorService = calculatorService;
+        this.executor = executor;
+        this.maxBufferedEvents = maxBufferedEvents;
+        this.maxBatchSize = Math.min(maxBatchSize, maxBufferedEvents);
+        this.events = new ArrayBlockingQueue<>(maxBufferedEvents);
+        this.batch = new ShiftEvent[this.maxBatchSize];
+        this.startHours = new int[this.maxBatchSize];
+        this.bedHours = new int[this.maxBatchSize];
+        this.endHours = new int[this.maxBatchSize];
+    }
+
+    /**
+     * Creates an executor running each task on a new virtual thread.
+     *
+     * @return the {@link ExecutorService}.
+     * @throws UnsupportedOperationException if the JVM does not provide virtual threads.
+     */
+    public static ExecutorService virtualThreadExecutor() {
+        return ExecutorUtilities.newVirtualThreadExecutor();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (this.subscription != null) {
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        subscription.request(maxBufferedEvents);
+    }
+
+    @Override
+    public void onNext(ShiftEvent event) {
+        if (!events.offer(event)) {
+            /*
+             * Upstream sent more than was requested, breaking the Flow contract.
+             */
+            subscription.cancel();
+            upstreamError = new IllegalStateException("Received more events than requested.");
+            upstreamDone = true;
+        } else {
+            receivedEvents.increment();
+            maxQueueDepth.accumulate(events.size());
+        }
+        scheduleDrain();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        upstreamError = throwable;
+        upstreamDone = true;
+        scheduleDrain();
+    }
+
+    @Override
+    public void onComplete() {
+        upstreamDone = true;
+        scheduleDrain();
+    }
+
+    @Override
+    public long getReceivedEvents() {
+        return receivedEvents.sum();
+    }
+
+    @Override
+    public long getPublishedTotals() {
+        return publishedTotals.sum();
+    }
+
+    @Override
+    public long getInvalidEvents() {
+        return invalidEvents.sum();
+    }
+
+    @Override
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    @Override
+    public double getTotalsPerSecond() {
+        return publishedTotals.sum() * 1e9 / Math.max(1, System.nanoTime() - createdNanos);
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return events.size();
+    }
+
+    @Override
+    public int getMaxQueueDepth() {
+        return (int) maxQueueDepth.get();
+    }
+
+    @Override
+    public int getMaxBufferedEvents() {
+        return maxBufferedEvents;
+    }
+
+    @Override
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /**
+     * Registers this processor with the platform MBean server as
+     * {@code com.trsljs:type=CalculationProcessor,name=<name>}. Registering more than once has no effect.
+     *
+     * @param name the name of the processor.
+     */
+    public void registerMBean(String name) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this,
+                    new ObjectName("com.trsljs:type=CalculationProcessor,name=" + name));
+        } catch (InstanceAlreadyExistsException e) {
+            // already registered
+        } catch (JMException e) {
+            throw new IllegalStateException("Unable to register metrics for " + name, e);
+        }
+    }
+
+    /**
+     * Makes sure the queue is drained after this call. Only one drain runs at a time; a request arriving while one
+     * runs makes it check the queue again before it finishes.
+     */
+    private void scheduleDrain() {
+        if (drainRequests.getAndIncrement() == 0) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        int requests = drainRequests.get();
+        do {
+            drainBatches();
+            requests = drainRequests.addAndGet(-requests);
+        } while (requests != 0);
+    }
+
+    private void drainBatches() {
+        if (closed) {
+            events.clear();
+            return;
+        }
+        int count;
+        while ((count = takeBatch()) > 0) {
+            calculateAndPublish(count);
+            subscription.request(count);
+        }
+        if (upstreamDone && events.isEmpty()) {
+            closed = true;
+            if (upstreamError != null) {
+                closeExceptionally(upstreamError);
+            } else {
+                close();
+            }
+        }
+    }
+
+    private int takeBatch() {
+        int count = 0;
+        ShiftEvent event;
+        while (count < maxBatchSize && (event = events.poll()) != null) {
+            batch[count] = event;
+            startHours[count] = event.getStartHour();
+            bedHours[count] = event.getBedHour();
+            endHours[count] = event.getEndHour();
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Calculates a batch in one call. If any shift in it is invalid, the shifts are calculated one at a time so that
+     * only the invalid ones are published with an error.
+     */
+    private void calculateAndPublish(int count) {
+        batches.increment();
+        try {
+            BatchResult result = count == maxBatchSize
+                    ? calculatorService.calculateJobTotals(startHours, bedHours, endHours)
+                    : calculatorService.calculateJobTotals(Arrays.copyOf(startHours, count),
+                            Arrays.copyOf(bedHours, count), Arrays.copyOf(endHours, count));
+            for (int i = 0; i < count; i++) {
+                publish(new ShiftTotal(batch[i], result.getTotalCents(i), result.getScheduleVersion(), null));
+            }
+        } catch (IllegalArgumentException batchError) {
+            for (int i = 0; i < count; i++) {
+                ShiftTotal total;
+                try {
+                    /*
+                     * The total and its version come from the same schedule, even if it is replaced meanwhile.
+                     */
+                    JobTotal jobTotal = calculatorService.quoteJobTotal(startHours[i], bedHours[i], endHours[i]);
+                    total = new ShiftTotal(batch[i], jobTotal.getTotalCents(), jobTotal.getScheduleVersion(), null);
+                } catch (IllegalArgumentException e) {
+                    invalidEvents.increment();
+                    total = new ShiftTotal(batch[i], -1, calculatorService.getRateSchedule().getVersion(),
+                            e.getMessage());
+                }
+                publish(total);
+            }
+        }
+        Arrays.fill(batch, 0, count, null);
+    }
+
+    /**
+     * Publishes a total, waiting while any subscriber's buffer is full.
+     */
+    private void publish(ShiftTotal total) {
+        submit(total);
+        publishedTotals.increment();
+    }
+}
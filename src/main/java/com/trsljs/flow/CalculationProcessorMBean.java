@@ -0,0 +1,30 @@
+package com.trsljs.flow;
+
+/**
+ * JMX view of the throughput and queue depth of a {@link CalculationProcessor}.
+ *
+ * @author <a href="mailto:timothyrocksmith@gmail.com">Tim Smith</a>
+ */
+public interface CalculationProcessorMBean {
+
+    long getReceivedEvents();
+
+    long getPublishedTotals();
+
+    long getInvalidEvents();
+
+    long getBatches();
+
+    /**
+     * @return the mean number of totals published per second since the processor was created.
+     */
+    double getTotalsPerSecond();
+
+    int getQueueDepth();
+
+    int getMaxQueueDepth();
+
+    int getMaxBufferedEvents();
+
+    int getMaxBatchSize();
+}
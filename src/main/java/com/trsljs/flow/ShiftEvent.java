@@ -0,0 +1,47 @@
+package com.trsljs.flow;
+
+/**
+ * A shift to be calculated by a {@link CalculationProcessor}, given in whole hours of the day.
+ *
+ * @author <a href="mailto:timothyrocksmith@gmail.com">Tim Smith</a>
+ */
+public class ShiftEvent {
+    private final long reference;
+    private final int startHour;
+    private final int bedHour;
+    private final int endHour;
+
+    /**
+     * @param reference a caller supplied reference of the shift, e.g. its booking number.
+     * @param startHour the start hour of the day (0-23).
+     * @param bedHour the bedtime hour of the day (0-23).
+     * @param endHour the end hour of the day (0-23).
+     */
+    public ShiftEvent(long reference, int startHour, int bedHour, int endHour) {
+        this.reference = reference;
+        this.startHour = startHour;
+        this.bedHour = bedHour;
+        this.endHour = endHour;
+    }
+
+    public long getReference() {
+        return reference;
+    }
+
+    public int getStartHour() {
+        return startHour;
+    }
+
+    public int getBedHour() {
+        return bedHour;
+    }
+
+    public int getEndHour() {
+        return endHour;
+    }
+
+    @Override
+    public String toString() {
+        return "ShiftEvent{" + reference + ": " + startHour + ", " + bedHour + ", " + endHour + "}";
+    }
+}
@@ -0,0 +1,50 @@
+package com.trsljs.flow;
+
+/**
+ * The total published by a {@link CalculationProcessor} for a {@link ShiftEvent}. An invalid shift does not end the
+ * stream; its total carries the reason instead.
+ *
+ * @author <a href="mailto:timothyrocksmith@gmail.com">Tim Smith</a>
+ */
+public class ShiftTotal {
+    private final ShiftEvent event;
+    private final int totalCents;
+    private final String scheduleVersion;
+    private final String error;
+
+    ShiftTotal(ShiftEvent event, int totalCents, String scheduleVersion, String error) {
+        this.event = event;
+        this.totalCents = totalCents;
+        this.scheduleVersion = scheduleVersion;
+        this.error = error;
+    }
+
+    public ShiftEvent getEvent() {
+        return event;
+    }
+
+    /**
+     * @return the total charge in cents, or -1 if the shift is invalid.
+     */
+    public int getTotalCents() {
+        return totalCents;
+    }
+
+    /**
+     * @return the version of the rate schedule the total was calculated from.
+     */
+    public String getScheduleVersion() {
+        return scheduleVersion;
+    }
+
+    /**
+     * @return the reason the shift is invalid, or null if it is valid.
+     */
+    public String getError() {
+        return error;
+    }
+
+    public boolean isValid() {
+        return error == null;
+    }
+}
@@ -0,0 +1,214 @@
+package com.trsljs.history;
+
+import com.trsljs.service.CalculatorService;
+import com.trsljs.service.RateSchedule;
+import com.trsljs.util.TimeUtilities;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Off-heap history of calculated jobs kept in columns for fast aggregate queries. Each job takes 18 bytes outside
+ * the Java heap: its start, bed and end hour and the hours of each band as one byte each, and the pay of each band
+ * as a four byte int, so 100 million jobs fit in under 2GB of direct memory (raise {@code -XX:MaxDirectMemorySize}
+ * accordingly). Columns are allocated in chunks as jobs are appended and aggregations scan the chunks in parallel.
+ * The first chunk holds 4096 jobs and each further chunk twice the one before, up to 16 million jobs, so a small
+ * history takes little memory and a large one needs few chunks.
+ * <p>
+ * Appending is not thread-safe and must not run at the same time as an aggregation.
+ *
+ * @author <a href="mailto:timothyrocksmith@gmail.com">Tim Smith</a>
+ */
+public class JobHistoryStore {
+    private static final int FIRST_CHUNK_SIZE = 1 << 12;
+    private static final int MAX_CHUNK_SIZE = 1 << 24;
+    private static final int MAX_SHIFT_HOURS = TimeUtilities.ADJUSTED_END_TIME_MAXIMUM.getHour();
+
+    private final CalculatorService calculatorService;
+    private final int maxChunkSize;
+    private int nextChunkSize;
+    private final List<Chunk> chunks = new ArrayList<>();
+    private final int[] hours = new int[RateSchedule.BANDS];
+    private final int[] cents = new int[RateSchedule.BANDS];
+    private long size;
+
+    /**
+     * @param calculatorService the {@link CalculatorService} whose current {@link RateSchedule} prices appended jobs.
+     */
+    public JobHistoryStore(CalculatorService calculatorService) {
+        this(calculatorService, FIRST_CHUNK_SIZE, MAX_CHUNK_SIZE);
+    }
+
+    JobHistoryStore(CalculatorService calculatorService, int firstChunkSize, int maxChunkSize) {
+        this.calculatorService = calculatorService;
+        this.nextChunkSize = firstChunkSize;
+        this.maxChunkSize = maxChunkSize;
+    }
+
+    /**
+     * Calculates a job of whole hours and appends it to the history.
+     *
+     * @param startHour the start hour of the day (0-23).
+     * @param bedHour the bedtime hour of the day (0-23).
+     * @param endHour the end hour of the day (0-23).
+     * @return the total charge in cents of the job.
+     * @throws IllegalArgumentException if the job is invalid, see
+     * {@link CalculatorService#calculateJobTotalCents(int, int, int)}.
+     */
+    public int append(int startHour, int bedHour, int endHour) {
+        calculatorService.getRateSchedule().splitIntoBands(startHour, bedHour, endHour, hours, cents);
+        Chunk chunk = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+        if (chunk == null || chunk.size == chunk.capacity) {
+            chunk = new Chunk(nextChunkSize);
+            chunks.add(chunk);
+            nextChunkSize = Math.min(maxChunkSize, nextChunkSize * 2);
+        }
+        int row = chunk.size;
+        chunk.startHours.put(row, (byte) startHour);
+        chunk.bedHours.put(row, (byte) bedHour);
+        chunk.endHours.put(row, (byte) endHour);
+        int totalCents = 0;
+        for (int band = 0; band < RateSchedule.BANDS; band++) {
+            chunk.bandHours[band].put(row, (byte) hours[band]);
+            chunk.bandCents[band].putInt(row * Integer.BYTES, cents[band]);
+            totalCents += cents[band];
+        }
+        chunk.size = row + 1;
+        size++;
+        return totalCents;
+    }
+
+    /**
+     * @return the number of jobs in the history.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return the sum of the total charge in cents of every job.
+     */
+    public long totalPayCents() {
+        long total = 0;
+        for (long bandCents : payCentsByBand()) {
+            total += bandCents;
+        }
+        return total;
+    }
+
+    /**
+     * @return the sum of the pay in cents of every job in each band, indexed by the {@link RateSchedule} band
+     * constants.
+     */
+    public long[] payCentsByBand() {
+        long[] totals = new long[RateSchedule.BANDS];
+        for (int band = 0; band < RateSchedule.BANDS; band++) {
+            int column = band;
+            totals[band] = chunkStream().mapToLong(chunk -> sumInts(chunk.bandCents[column], chunk.size)).sum();
+        }
+        return totals;
+    }
+
+    /**
+     * @return the sum of the hours of every job in each band, indexed by the {@link RateSchedule} band constants.
+     */
+    public long[] hoursByBand() {
+        long[] totals = new long[RateSchedule.BANDS];
+        for (int band = 0; band < RateSchedule.BANDS; band++) {
+            int column = band;
+            totals[band] = chunkStream().mapToLong(chunk -> sumBytes(chunk.bandHours[column], chunk.size)).sum();
+        }
+        return totals;
+    }
+
+    /**
+     * @return the number of jobs of each length, index i holding the number of jobs lasting i hours.
+     */
+    public long[] shiftLengthHistogram() {
+        return chunkStream().map(JobHistoryStore::shiftLengths)
+                .reduce(new long[MAX_SHIFT_HOURS + 1], JobHistoryStore::add);
+    }
+
+    /**
+     * @return the number of jobs starting at each hour of the day, index i holding the jobs starting at hour i.
+     */
+    public long[] startHourHistogram() {
+        return chunkStream().map(chunk -> countBytes(chunk.startHours, chunk.size, 24))
+                .reduce(new long[24], JobHistoryStore::add);
+    }
+
+    private Stream<Chunk> chunkStream() {
+        return IntStream.range(0, chunks.size()).parallel().mapToObj(chunks::get);
+    }
+
+    private static long[] add(long[] a, long[] b) {
+        long[] sum = new long[a.length];
+        for (int i = 0; i < sum.length; i++) {
+            sum[i] = a[i] + b[i];
+        }
+        return sum;
+    }
+
+    private static long[] countBytes(ByteBuffer column, int rows, int values) {
+        long[] histogram = new long[values];
+        for (int row = 0; row < rows; row++) {
+            histogram[column.get(row)]++;
+        }
+        return histogram;
+    }
+
+    private static long[] shiftLengths(Chunk chunk) {
+        long[] histogram = new long[MAX_SHIFT_HOURS + 1];
+        ByteBuffer first = chunk.bandHours[RateSchedule.BAND_UNTIL_BEDTIME];
+        ByteBuffer second = chunk.bandHours[RateSchedule.BAND_BEDTIME_UNTIL_MIDNIGHT];
+        ByteBuffer third = chunk.bandHours[RateSchedule.BAND_MIDNIGHT_UNTIL_END];
+        for (int row = 0; row < chunk.size; row++) {
+            histogram[first.get(row) + second.get(row) + third.get(row)]++;
+        }
+        return histogram;
+    }
+
+    private static long sumInts(ByteBuffer column, int rows) {
+        long sum = 0;
+        for (int row = 0; row < rows; row++) {
+            sum += column.getInt(row * Integer.BYTES);
+        }
+        return sum;
+    }
+
+    private static long sumBytes(ByteBuffer column, int rows) {
+        long sum = 0;
+        for (int row = 0; row < rows; row++) {
+            sum += column.get(row);
+        }
+        return sum;
+    }
+
+    /**
+     * A fixed number of rows of every column.
+     */
+    private static class Chunk {
+        private final ByteBuffer startHours;
+        private final ByteBuffer bedHours;
+        private final ByteBuffer endHours;
+        private final ByteBuffer[] bandHours = new ByteBuffer[RateSchedule.BANDS];
+        private final ByteBuffer[] bandCents = new ByteBuffer[RateSchedule.BANDS];
+        private final int capacity;
+        private int size;
+
+        Chunk(int rows) {
+            capacity = rows;
+            startHours = ByteBuffer.allocateDirect(rows);
+            bedHours = ByteBuffer.allocateDirect(rows);
+            endHours = ByteBuffer.allocateDirect(rows);
+            for (int band = 0; band < RateSchedule.BANDS; band++) {
+                bandHours[band] = ByteBuffer.allocateDirect(rows);
+                bandCents[band] = ByteBuffer.allocateDirect(rows * Integer.BYTES).order(ByteOrder.nativeOrder());
+            }
+        }
+    }
+}
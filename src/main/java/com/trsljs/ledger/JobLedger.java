@@ -0,0 +1,623 @@
+package com.trsljs.ledger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * Durable, append-only journal of calculated jobs kept in memory-mapped segment files.
+ * <p>
+ * Every job is a fixed 40 byte record holding its sequence number, a caller supplied reference, the time it was
+ * appended, its start, bed and end hours, its total in cents, the id of the rate schedule version and a CRC32C
+ * checksum of the rest of the record. Each version is given the next id the first time it is appended, and the
+ * version is written to the {@value #VERSIONS_FILE} file and forced to disk before any record refers to it, so
+ * every record can be traced back to the schedule that priced it. Segments hold a fixed number of records and are
+ * named after the sequence number of their first record; when one fills up the next is created. Old segments may be
+ * removed from the start of the ledger; the sequence then continues from the first remaining segment.
+ * <p>
+ * Appending only copies the record into the mapped segment, so it never waits on the disk. A background thread
+ * forces the written records to disk every flush interval, sharing the cost of each {@code force()} among all the
+ * records appended since the last one, then writes the sequence number of the last forced record to the
+ * {@value #CHECKPOINT_FILE} file and forces that too. Callers needing a record to be on disk use {@link #sync()} or
+ * {@link #awaitDurable(long, long)}. If forcing fails the ledger keeps the failure: the background thread stops,
+ * segments not yet forced stay queued, and every later append or sync throws it, since after a failed force the
+ * operating system may already have dropped the unwritten pages.
+ * <p>
+ * When a ledger is opened its segments are scanned to the last record with a valid checksum and the next sequence
+ * number. A crash can tear any record after the checkpoint, including the end of a segment that was rolled over
+ * before it was forced, so everything after the first invalid record past the checkpoint is discarded: the rest of
+ * its segment is zeroed and later segments, which cannot have been made durable, are deleted. An invalid or missing
+ * record at or before the checkpoint, or a gap in the sequence between segments, is not something a crash leaves
+ * behind, and opening the ledger fails rather than discard records that were on disk.
+ *
+ * @author <a href="mailto:timothyrocksmith@gmail.com">Tim Smith</a>
+ */
+public class JobLedger implements Closeable {
+    static final int RECORD_SIZE = 40;
+    private static final int CHECKSUM_OFFSET = RECORD_SIZE - Integer.BYTES;
+    private static final int DEFAULT_SEGMENT_RECORDS = 1 << 20;
+    private static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 10;
+    private static final String SEGMENT_PREFIX = "ledger-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    static final String VERSIONS_FILE = "schedule-versions.txt";
+    static final String CHECKPOINT_FILE = "checkpoint";
+    private static final int CHECKPOINT_SIZE = Long.BYTES + Integer.BYTES;
+
+    private final Path directory;
+    private final int segmentRecords;
+    private final long flushIntervalMillis;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final byte[] record = new byte[RECORD_SIZE];
+    private final ByteBuffer recordBuffer = ByteBuffer.wrap(record).order(ByteOrder.LITTLE_ENDIAN);
+    private final CRC32C checksum = new CRC32C();
+    private final List<Segment> retiredSegments = new ArrayList<>();
+    private Segment segment;
+    private long lastSequence;
+    private long lastReference;
+    private final Map<String, Integer> versionIds = new HashMap<>();
+    private final List<String> versions = new CopyOnWriteArrayList<>();
+
+    private final ReentrantLock forceLock = new ReentrantLock();
+    private final FileChannel checkpointChannel;
+    private final ByteBuffer checkpointBuffer = ByteBuffer.allocate(CHECKPOINT_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private final CRC32C checkpointChecksum = new CRC32C();
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Condition flushed = flushLock.newCondition();
+    private final Condition flushRequested = flushLock.newCondition();
+    private volatile long durableSequence;
+    private volatile IOException failure;
+    private volatile boolean closed;
+    private final Thread flusher;
+
+    /**
+     * Opens the ledger in the directory with the default segment size of 1M records and a flush interval of 10ms.
+     *
+     * @param directory the {@link Path} of the directory holding the segments, created if missing.
+     * @return the recovered {@link JobLedger}.
+     * @throws IOException if the segments cannot be read or created.
+     */
+    public static JobLedger open(Path directory) throws IOException {
+        return new JobLedger(directory, DEFAULT_SEGMENT_RECORDS, DEFAULT_FLUSH_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Opens the ledger in the directory, recovering to the last valid record.
+     *
+     * @param directory the {@link Path} of the directory holding the segments, created if missing.
+     * @param segmentRecords the number of records in each new segment.
+     * @param flushIntervalMillis the time between forcing appended records to disk.
+     * @throws IOException if the segments cannot be read or created.
+     */
+    public JobLedger(Path directory, int segmentRecords, long flushIntervalMillis) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.segmentRecords = segmentRecords;
+        this.flushIntervalMillis = flushIntervalMillis;
+        loadVersions();
+        recover(readCheckpoint());
+        durableSequence = lastSequence;
+        checkpointChannel = FileChannel.open(directory.resolve(CHECKPOINT_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        flusher = new Thread(this::flushPeriodically, "job-ledger-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Appends a calculated job.
+     *
+     * @param reference a caller supplied reference of the job, e.g. the line number of a batch file.
+     * @param startHour the start hour of the day (0-23) of the job.
+     * @param bedHour the bedtime hour of the day (0-23) of the job.
+     * @param endHour the end hour of the day (0-23) of the job.
+     * @param totalCents the total charge in cents of the job.
+     * @param scheduleVersion the version of the rate schedule used.
+     * @return the sequence number of the record.
+     * @throws IOException if a new segment cannot be created, a new version cannot be written or an earlier flush
+     * failed.
+     * @throws IllegalArgumentException if the version spans more than one line.
+     * @throws IllegalStateException if the ledger is closed.
+     */
+    public long append(long reference, int startHour, int bedHour, int endHour, int totalCents,
+                       String scheduleVersion) throws IOException {
+        appendLock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Ledger is closed.");
+            }
+            checkFailure();
+            int versionId = versionIdOf(scheduleVersion);
+            if (segment.size == segment.capacity) {
+                rollOver();
+            }
+            long sequence = lastSequence + 1;
+            recordBuffer.clear();
+            recordBuffer.putLong(sequence).putLong(reference).putLong(System.currentTimeMillis())
+                    .put((byte) startHour).put((byte) bedHour).put((byte) endHour).put((byte) 0)
+                    .putInt(totalCents).putInt(versionId);
+            checksum.reset();
+            checksum.update(record, 0, CHECKSUM_OFFSET);
+            recordBuffer.putInt((int) checksum.getValue());
+
+            segment.buffer.position(segment.size * RECORD_SIZE);
+            segment.buffer.put(record);
+            segment.size++;
+            lastSequence = sequence;
+            lastReference = reference;
+            return sequence;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * @return the sequence number of the last appended record, 0 if the ledger is empty.
+     */
+    public long getLastSequence() {
+        appendLock.lock();
+        try {
+            return lastSequence;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * @return the reference of the last appended record, 0 if the ledger is empty.
+     */
+    public long getLastReference() {
+        appendLock.lock();
+        try {
+            return lastReference;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * @return the sequence number of the last record known to be on disk.
+     */
+    public long getDurableSequence() {
+        return durableSequence;
+    }
+
+    /**
+     * Forces every record appended so far to disk before returning.
+     *
+     * @throws IOException if the records cannot be forced, now or in an earlier flush.
+     */
+    public void sync() throws IOException {
+        checkFailure();
+        flush();
+    }
+
+    /**
+     * Waits for the background flush to put a record on disk.
+     *
+     * @param sequence the sequence number of the record.
+     * @param timeoutMillis the maximum time to wait in milliseconds.
+     * @return true if the record is on disk, false if the time ran out or forcing failed first.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public boolean awaitDurable(long sequence, long timeoutMillis) throws InterruptedException {
+        long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        flushLock.lock();
+        try {
+            flushRequested.signal();
+            while (durableSequence < sequence) {
+                if (remaining <= 0 || failure != null) {
+                    return false;
+                }
+                remaining = flushed.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Passes every valid record, oldest first, to the visitor.
+     *
+     * @param visitor the {@link LedgerRecordVisitor} receiving the records.
+     * @throws IOException if a segment cannot be read.
+     */
+    public void replay(LedgerRecordVisitor visitor) throws IOException {
+        long last = getLastSequence();
+        List<Path> files = listSegments();
+        long expected = files.isEmpty() ? 1 : firstSequenceOf(files.get(0));
+        byte[] bytes = new byte[RECORD_SIZE];
+        ByteBuffer view = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        CRC32C replayChecksum = new CRC32C();
+        for (Path file : files) {
+            if (expected > last) {
+                return;
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                for (int offset = 0; offset + RECORD_SIZE <= buffer.capacity() && expected <= last;
+                     offset += RECORD_SIZE) {
+                    buffer.position(offset);
+                    buffer.get(bytes);
+                    if (!isValid(bytes, view, replayChecksum, expected)) {
+                        return;
+                    }
+                    visitor.visit(expected, view.getLong(8), view.getLong(16), view.get(24), view.get(25),
+                            view.get(26), view.getInt(28), versions.get(view.getInt(32)));
+                    expected++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Forces all appended records to disk and stops the background flush. Appending afterwards fails.
+     *
+     * @throws IOException if the records cannot be forced.
+     */
+    @Override
+    public void close() throws IOException {
+        appendLock.lock();
+        try {
+            closed = true;
+        } finally {
+            appendLock.unlock();
+        }
+        /*
+         * The flusher is woken rather than interrupted, as an interrupt during a write would close the checkpoint
+         * channel.
+         */
+        flushLock.lock();
+        try {
+            flushRequested.signal();
+        } finally {
+            flushLock.unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            checkFailure();
+            flush();
+        } finally {
+            checkpointChannel.close();
+        }
+    }
+
+    private void flushPeriodically() {
+        while (!closed) {
+            flushLock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                flushRequested.await(flushIntervalMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                flushLock.unlock();
+            }
+            try {
+                flush();
+            } catch (IOException e) {
+                // kept in failure, which every later append and sync throws
+                return;
+            }
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        IOException cause = failure;
+        if (cause != null) {
+            throw new IOException("Ledger could not be forced to disk.", cause);
+        }
+    }
+
+    /**
+     * Forces the records appended so far, including those in segments retired since the last successful flush,
+     * records the last of them in the checkpoint and wakes every caller waiting on them. Retired segments stay queued
+     * until they have been forced. A failure is kept for later appends and syncs and wakes the waiting callers.
+     */
+    private void flush() throws IOException {
+        forceLock.lock();
+        try {
+            List<Segment> retired;
+            Segment current;
+            long sequence;
+            appendLock.lock();
+            try {
+                retired = new ArrayList<>(retiredSegments);
+                current = segment;
+                sequence = lastSequence;
+            } finally {
+                appendLock.unlock();
+            }
+            if (sequence <= durableSequence && retired.isEmpty()) {
+                return;
+            }
+            try {
+                for (Segment old : retired) {
+                    old.buffer.force();
+                }
+                current.buffer.force();
+                writeCheckpoint(sequence);
+            } catch (IOException e) {
+                fail(e);
+                throw e;
+            } catch (UncheckedIOException e) {
+                fail(e.getCause());
+                throw e.getCause();
+            }
+            appendLock.lock();
+            try {
+                retiredSegments.subList(0, retired.size()).clear();
+            } finally {
+                appendLock.unlock();
+            }
+            flushLock.lock();
+            try {
+                if (sequence > durableSequence) {
+                    durableSequence = sequence;
+                }
+                flushed.signalAll();
+            } finally {
+                flushLock.unlock();
+            }
+        } finally {
+            forceLock.unlock();
+        }
+    }
+
+    private void fail(IOException cause) {
+        flushLock.lock();
+        try {
+            if (failure == null) {
+                failure = cause;
+            }
+            flushed.signalAll();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void writeCheckpoint(long sequence) throws IOException {
+        checkpointBuffer.clear();
+        checkpointBuffer.putLong(sequence);
+        checkpointChecksum.reset();
+        checkpointChecksum.update(checkpointBuffer.array(), 0, Long.BYTES);
+        checkpointBuffer.putInt((int) checkpointChecksum.getValue()).flip();
+        while (checkpointBuffer.hasRemaining()) {
+            checkpointChannel.write(checkpointBuffer, checkpointBuffer.position());
+        }
+        checkpointChannel.force(false);
+    }
+
+    /**
+     * @return the sequence number of the last record known to have been forced, 0 if no checkpoint was written or
+     * it was torn.
+     */
+    private long readCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file) || Files.size(file) < CHECKPOINT_SIZE) {
+            return 0;
+        }
+        ByteBuffer view = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        CRC32C crc = new CRC32C();
+        crc.update(view.array(), 0, Long.BYTES);
+        return view.getInt(Long.BYTES) == (int) crc.getValue() ? view.getLong(0) : 0;
+    }
+
+    private void rollOver() throws IOException {
+        retiredSegments.add(segment);
+        segment = createSegment(lastSequence + 1);
+    }
+
+    /**
+     * Scans the segments in order to the last valid record, zeroes whatever follows it in its segment and deletes
+     * the segments after it.
+     *
+     * @param checkpoint the sequence number of the last record known to have been forced.
+     * @throws IOException if a segment does not continue the sequence of the one before it, or a record up to the
+     * checkpoint is invalid or missing.
+     */
+    private void recover(long checkpoint) throws IOException {
+        List<Path> files = listSegments();
+        long expected = files.isEmpty() ? 1 : firstSequenceOf(files.get(0));
+        lastSequence = expected - 1;
+        byte[] bytes = new byte[RECORD_SIZE];
+        ByteBuffer view = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < files.size(); i++) {
+            Path file = files.get(i);
+            boolean last = i == files.size() - 1;
+            if (firstSequenceOf(file) != expected) {
+                throw new IOException("Ledger segment " + file + " does not start at the expected sequence "
+                        + expected + ".");
+            }
+            Segment candidate = mapSegment(file);
+            int valid = 0;
+            while (valid < candidate.capacity) {
+                candidate.buffer.position(valid * RECORD_SIZE);
+                candidate.buffer.get(bytes);
+                if (!isValid(bytes, view, checksum, expected) || view.getInt(32) >= versions.size()) {
+                    break;
+                }
+                lastReference = view.getLong(8);
+                expected++;
+                valid++;
+            }
+            candidate.size = valid;
+            segment = candidate;
+            if (valid < candidate.capacity) {
+                if (expected <= checkpoint) {
+                    throw new IOException("Ledger segment " + file + " has an invalid record at sequence "
+                            + expected + ", which was forced to disk.");
+                }
+                zeroFrom(candidate, valid);
+                if (!last) {
+                    for (Path later : files.subList(i + 1, files.size())) {
+                        Files.delete(later);
+                    }
+                }
+                break;
+            }
+        }
+        if (expected <= checkpoint) {
+            throw new IOException("Ledger ends before sequence " + expected + " but records up to " + checkpoint
+                    + " were forced to disk.");
+        }
+        lastSequence = expected - 1;
+        if (segment == null) {
+            segment = createSegment(expected);
+        }
+    }
+
+    /**
+     * Reads the versions written so far. A version torn by a crash was never referred to, so it is cut off.
+     */
+    private void loadVersions() throws IOException {
+        Path file = directory.resolve(VERSIONS_FILE);
+        if (!Files.exists(file)) {
+            return;
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        int end = bytes.length;
+        while (end > 0 && bytes[end - 1] != '\n') {
+            end--;
+        }
+        if (end < bytes.length) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(end);
+                channel.force(true);
+            }
+        }
+        int from = 0;
+        for (int i = 0; i < end; i++) {
+            if (bytes[i] == '\n') {
+                String version = new String(bytes, from, i - from, StandardCharsets.UTF_8);
+                versionIds.put(version, versions.size());
+                versions.add(version);
+                from = i + 1;
+            }
+        }
+    }
+
+    /**
+     * Returns the id of a version, writing it to the versions file and forcing it to disk the first time it is seen.
+     */
+    private int versionIdOf(String scheduleVersion) throws IOException {
+        Integer id = versionIds.get(scheduleVersion);
+        if (id != null) {
+            return id;
+        }
+        if (scheduleVersion.indexOf('\n') >= 0 || scheduleVersion.indexOf('\r') >= 0) {
+            throw new IllegalArgumentException("Schedule version must be a single line.");
+        }
+        try (FileChannel channel = FileChannel.open(directory.resolve(VERSIONS_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer line = ByteBuffer.wrap((scheduleVersion + "\n").getBytes(StandardCharsets.UTF_8));
+            while (line.hasRemaining()) {
+                channel.write(line);
+            }
+            channel.force(true);
+        }
+        id = versions.size();
+        versionIds.put(scheduleVersion, id);
+        versions.add(scheduleVersion);
+        return id;
+    }
+
+    private boolean isValid(byte[] bytes, ByteBuffer view, CRC32C crc, long expectedSequence) {
+        crc.reset();
+        crc.update(bytes, 0, CHECKSUM_OFFSET);
+        return view.getLong(0) == expectedSequence && view.getInt(CHECKSUM_OFFSET) == (int) crc.getValue();
+    }
+
+    private static void zeroFrom(Segment segment, int record) {
+        byte[] zeros = new byte[RECORD_SIZE * 256];
+        int offset = record * RECORD_SIZE;
+        int end = segment.capacity * RECORD_SIZE;
+        segment.buffer.position(offset);
+        while (offset < end) {
+            int length = Math.min(zeros.length, end - offset);
+            segment.buffer.put(zeros, 0, length);
+            offset += length;
+        }
+        segment.buffer.force();
+    }
+
+    private Segment createSegment(long firstSequence) throws IOException {
+        return mapSegment(directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence,
+                SEGMENT_SUFFIX)));
+    }
+
+    private Segment mapSegment(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            int records = Files.size(file) > 0 ? (int) (Files.size(file) / RECORD_SIZE) : segmentRecords;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) records * RECORD_SIZE);
+            return new Segment(buffer, records);
+        }
+    }
+
+    private List<Path> listSegments() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : stream) {
+                if (firstSequenceOf(file) > 0) {
+                    files.add(file);
+                }
+            }
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    /**
+     * @return the sequence number a segment file is named after, or -1 if the file is not named like a segment.
+     */
+    private static long firstSequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * A mapped segment file and the number of records written to it.
+     */
+    private static class Segment {
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+        private int size;
+
+        Segment(MappedByteBuffer buffer, int capacity) {
+            this.buffer = buffer;
+            this.capacity = capacity;
+        }
+    }
+}
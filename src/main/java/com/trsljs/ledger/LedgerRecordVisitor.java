@@ -0,0 +1,23 @@
+package com.trsljs.ledger;
+
+/**
+ * Receives the records of a {@link JobLedger} during {@link JobLedger#replay(LedgerRecordVisitor)} as primitives
+ * and the shared version text, so replaying does not create an object per record.
+ *
+ * @author <a href="mailto:timothyrocksmith@gmail.com">Tim Smith</a>
+ */
+public interface LedgerRecordVisitor {
+
+    /**
+     * @param sequence the sequence number of the record, starting from 1.
+     * @param reference the caller supplied reference of the job, e.g. the line number of a batch file.
+     * @param timestampMillis the time the record was appended in milliseconds since the epoch.
+     * @param startHour the start hour of the day (0-23) of the job.
+     * @param bedHour the bedtime hour of the day (0-23) of the job.
+     * @param endHour the end hour of the day (0-23) of the job.
+     * @param totalCents the total charge in cents of the job.
+     * @param scheduleVersion the version of the rate schedule used, shared by every record with that version.
+     */
+    void visit(long sequence, long reference, long timestampMillis, int startHour, int bedHour, int endHour,
+               int totalCents, String scheduleVersion);
+}
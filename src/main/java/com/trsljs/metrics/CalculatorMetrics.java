@@ -0,0 +1,72 @@
+package com.trsljs.metrics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Metrics of the calculator operations. Recording costs a pair of {@link System#nanoTime()} calls and several
+ * counter updates per call, many times the cost of looking up a total, so it is off unless the JVM is started with
+ * {@code -Dbabysitter.metrics=true}. While it is off {@link #ENABLED} is false and the JIT removes the
+ * instrumentation entirely. Calls taking at least {@code babysitter.metrics.slowNanos} nanoseconds (1ms by default)
+ * are also reported to Flight Recorder as {@code com.trsljs.SlowCalculation} events. {@link #VALIDATE_JOB} records
+ * the validation of single jobs by {@link com.trsljs.util.JobValidator}, where a rejected job counts as an error.
+ *
+ * @author <a href="mailto:timothyrocksmith@gmail.com">Tim Smith</a>
+ */
+public class CalculatorMetrics {
+    public static final boolean ENABLED = Boolean.getBoolean("babysitter.metrics");
+    private static final long SLOW_NANOS = Long.getLong("babysitter.metrics.slowNanos", 1_000_000L);
+
+    public static final OperationMetrics CALCULATE_JOB_TOTAL = new OperationMetrics("calculateJobTotal", SLOW_NANOS);
+    public static final OperationMetrics CALCULATE_JOB_TOTAL_CENTS =
+            new OperationMetrics("calculateJobTotalCents", SLOW_NANOS);
+    public static final OperationMetrics QUOTE_JOB_TOTAL = new OperationMetrics("quoteJobTotal", SLOW_NANOS);
+    public static final OperationMetrics CALCULATE_MINUTE_JOB_TOTAL_CENTS =
+            new OperationMetrics("calculateMinuteJobTotalCents", SLOW_NANOS);
+    public static final OperationMetrics CALCULATE_JOB_TOTALS = new OperationMetrics("calculateJobTotals", SLOW_NANOS);
+    public static final OperationMetrics FIND_LATEST_END_HOUR =
+            new OperationMetrics("findLatestEndHour", SLOW_NANOS);
+    public static final OperationMetrics VALIDATE_JOB = new OperationMetrics("validateJob", SLOW_NANOS);
+
+    private static final List<OperationMetrics> OPERATIONS = Collections.unmodifiableList(Arrays.asList(
+            CALCULATE_JOB_TOTAL, CALCULATE_JOB_TOTAL_CENTS, QUOTE_JOB_TOTAL, CALCULATE_MINUTE_JOB_TOTAL_CENTS,
+            CALCULATE_JOB_TOTALS, FIND_LATEST_END_HOUR, VALIDATE_JOB));
+
+    private CalculatorMetrics() {
+    }
+
+    /**
+     * @return the metrics of every instrumented operation.
+     */
+    public static List<OperationMetrics> getOperations() {
+        return OPERATIONS;
+    }
+
+    /**
+     * Registers an MBean named {@code com.trsljs:type=CalculatorMetrics,operation=<name>} for every operation with
+     * the platform MBean server. Registering more than once has no effect. Nothing is registered when metrics are
+     * disabled.
+     */
+    public static synchronized void registerMBeans() {
+        if (!ENABLED) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (OperationMetrics operation : OPERATIONS) {
+            try {
+                server.registerMBean(operation,
+                        new ObjectName("com.trsljs:type=CalculatorMetrics,operation=" + operation.getName()));
+            } catch (InstanceAlreadyExistsException e) {
+                // already registered
+            } catch (JMException e) {
+                throw new IllegalStateException("Unable to register metrics for " + operation.getName(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.trsljs.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Invocation counts and a latency histogram for one calculator operation. Recording is lock-free and does not
+ * allocate: every counter is a striped {@link LongAdder} so concurrent callers rarely contend.
+ * <p>
+ * The histogram is log-linear, each power of two of nanoseconds being split into 8 buckets, so a reported percentile
+ * is within 12.5% of the true latency.
+ *
+ * @author <a href="mailto:timothyrocksmith@gmail.com">Tim Smith</a>
+ */
+public class OperationMetrics implements OperationMetricsMBean {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final String name;
+    private final long slowNanos;
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+
+    /**
+     * @param name the name of the operation.
+     * @param slowNanos the latency in nanoseconds from which a call is reported as a {@link SlowCalculationEvent}.
+     */
+    OperationMetrics(String name, long slowNanos) {
+        this.name = name;
+        this.slowNanos = slowNanos;
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Makes a call of the operation, recording it if {@link CalculatorMetrics#ENABLED metrics are enabled}. When they
+     * are not, the call is made directly; the check is a constant, so the JIT inlines the call and removes the rest.
+     *
+     * @param call the call to make.
+     * @return the result of the call.
+     */
+    public <T> T time(Supplier<T> call) {
+        if (!CalculatorMetrics.ENABLED) {
+            return call.get();
+        }
+        long startNanos = System.nanoTime();
+        boolean failed = true;
+        try {
+            T result = call.get();
+            failed = false;
+            return result;
+        } finally {
+            record(startNanos, failed);
+        }
+    }
+
+    /**
+     * An int returning {@link #time(Supplier)} that does not box the result.
+     */
+    public int timeInt(IntSupplier call) {
+        if (!CalculatorMetrics.ENABLED) {
+            return call.getAsInt();
+        }
+        long startNanos = System.nanoTime();
+        boolean failed = true;
+        try {
+            int result = call.getAsInt();
+            failed = false;
+            return result;
+        } finally {
+            record(startNanos, failed);
+        }
+    }
+
+    /**
+     * A boolean returning {@link #time(Supplier)} that does not box the result.
+     */
+    public boolean timeBoolean(BooleanSupplier call) {
+        if (!CalculatorMetrics.ENABLED) {
+            return call.getAsBoolean();
+        }
+        long startNanos = System.nanoTime();
+        boolean failed = true;
+        try {
+            boolean result = call.getAsBoolean();
+            failed = false;
+            return result;
+        } finally {
+            record(startNanos, failed);
+        }
+    }
+
+    /**
+     * Records one call of the operation.
+     *
+     * @param startNanos the {@link System#nanoTime()} when the call started.
+     * @param failed whether the call threw an exception.
+     */
+    public void record(long startNanos, boolean failed) {
+        long nanos = Math.max(0, System.nanoTime() - startNanos);
+        invocations.increment();
+        if (failed) {
+            errors.increment();
+        }
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        buckets[bucketOf(nanos)].increment();
+        if (nanos >= slowNanos) {
+            SlowCalculationEvent event = new SlowCalculationEvent(name, nanos, failed);
+            if (event.shouldCommit()) {
+                event.commit();
+            }
+        }
+    }
+
+    @Override
+    public long getInvocations() {
+        return invocations.sum();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getMeanNanos() {
+        long count = invocations.sum();
+        return count == 0 ? 0 : totalNanos.sum() / count;
+    }
+
+    @Override
+    public long getP50Nanos() {
+        return percentileNanos(0.5);
+    }
+
+    @Override
+    public long getP90Nanos() {
+        return percentileNanos(0.9);
+    }
+
+    @Override
+    public long getP99Nanos() {
+        return percentileNanos(0.99);
+    }
+
+    @Override
+    public long getP999Nanos() {
+        return percentileNanos(0.999);
+    }
+
+    @Override
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    @Override
+    public void reset() {
+        invocations.reset();
+        errors.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+    }
+
+    /**
+     * @param fraction the fraction of calls, e.g. 0.99.
+     * @return the latency in nanoseconds that the fraction of calls were at or below, or 0 with no calls.
+     */
+    public long percentileNanos(double fraction) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(total * fraction));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(upperBoundOf(i), getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+
+    static int bucketOf(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long subBucket = bucket % SUB_BUCKETS;
+        return ((SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+}
@@ -0,0 +1,30 @@
+package com.trsljs.metrics;
+
+/**
+ * JMX view of the invocation counts and latencies of one calculator operation.
+ *
+ * @author <a href="mailto:timothyrocksmith@gmail.com">Tim Smith</a>
+ */
+public interface OperationMetricsMBean {
+
+    long getInvocations();
+
+    long getErrors();
+
+    long getMeanNanos();
+
+    long getP50Nanos();
+
+    long getP90Nanos();
+
+    long getP99Nanos();
+
+    long getP999Nanos();
+
+    long getMaxNanos();
+
+    /**
+     * Clears all counts and latencies.
+     */
+    void reset();
+}
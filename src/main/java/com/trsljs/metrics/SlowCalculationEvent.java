@@ -0,0 +1,35 @@
+package com.trsljs.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event emitted when a calculator operation takes longer than the slow call threshold.
+ *
+ * @author <a href="mailto:timothyrocksmith@gmail.com">Tim Smith</a>
+ */
+@Name("com.trsljs.SlowCalculation")
+@Label("Slow Calculation")
+@Category("Babysitting Calculator")
+@Description("A calculator operation took longer than the slow call threshold")
+class SlowCalculationEvent extends Event {
+    @Label("Operation")
+    final String operation;
+
+    @Label("Latency")
+    @Timespan(Timespan.NANOSECONDS)
+    final long latency;
+
+    @Label("Failed")
+    final boolean failed;
+
+    SlowCalculationEvent(String operation, long latency, boolean failed) {
+        this.operation = operation;
+        this.latency = latency;
+        this.failed = failed;
+    }
+}
@@ -0,0 +1,58 @@
+package com.trsljs.payroll;
+
+import com.trsljs.util.JobValidation;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Objects;
+
+/**
+ * A booked span of babysitting by one sitter, possibly covering several nights. The children go to bed at the same
+ * time every night of the engagement.
+ *
+ * @author <a href="mailto:timothyrocksmith@gmail.com">Tim Smith</a>
+ */
+public class Engagement {
+    private final String sitterId;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    private final LocalTime bedtime;
+
+    /**
+     * @param sitterId the identifier of the sitter.
+     * @param start the {@link LocalDateTime} the engagement starts.
+     * @param end the {@link LocalDateTime} the engagement ends.
+     * @param bedtime the {@link LocalTime} bedtime of every night.
+     * @throws IllegalArgumentException if the start is not before the end.
+     */
+    public Engagement(String sitterId, LocalDateTime start, LocalDateTime end, LocalTime bedtime) {
+        this.sitterId = Objects.requireNonNull(sitterId);
+        this.start = Objects.requireNonNull(start);
+        this.end = Objects.requireNonNull(end);
+        this.bedtime = Objects.requireNonNull(bedtime);
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException(JobValidation.START_AFTER_END.getMessage());
+        }
+    }
+
+    public String getSitterId() {
+        return sitterId;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+    public LocalTime getBedtime() {
+        return bedtime;
+    }
+
+    @Override
+    public String toString() {
+        return "Engagement{" + sitterId + ": " + start + " to " + end + ", bedtime " + bedtime + "}";
+    }
+}
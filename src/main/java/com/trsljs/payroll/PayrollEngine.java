@@ -0,0 +1,191 @@
+package com.trsljs.payroll;
+
+import com.trsljs.service.CalculatorService;
+import com.trsljs.util.TimeUtilities;
+
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Weekly payroll of engagements spanning any number of nights for any number of sitters.
+ * <p>
+ * The engagements are sorted by sitter and start, then each sitter's engagements are swept in order, merging any
+ * that overlap or meet so no time is paid twice. Each merged span is cut into the nightly windows from
+ * {@link TimeUtilities#START_TIME_MINIMUM} to {@link TimeUtilities#END_TIME_MAXIMUM} it covers, a night at a time,
+ * and every night is billed with the three bands of
+ * {@link CalculatorService#calculateMinuteJobTotalCents(int, int, int, int, RoundingMode)}. Time outside the window
+ * is not paid. As the nights come out of the sweep in order they are added up per week in the same pass. Sitters
+ * are independent, so they are processed in parallel.
+ *
+ * @author <a href="mailto:timothyrocksmith@gmail.com">Tim Smith</a>
+ */
+public class PayrollEngine {
+    public static final int DEFAULT_INCREMENT_MINUTES = 60;
+    public static final RoundingMode DEFAULT_ROUNDING = RoundingMode.CEILING;
+
+    private static final Comparator<Engagement> BY_SITTER_AND_START = Comparator
+            .comparing(Engagement::getSitterId)
+            .thenComparing(Engagement::getStart);
+
+    private final CalculatorService calculatorService;
+    private final int incrementMinutes;
+    private final RoundingMode rounding;
+    private final DayOfWeek firstDayOfWeek;
+
+    /**
+     * Creates an engine billing every started hour of a night, with weeks starting on Monday.
+     *
+     * @param calculatorService the {@link CalculatorService} to bill each night with.
+     */
+    public PayrollEngine(CalculatorService calculatorService) {
+        this(calculatorService, DEFAULT_INCREMENT_MINUTES, DEFAULT_ROUNDING, DayOfWeek.MONDAY);
+    }
+
+    /**
+     * @param calculatorService the {@link CalculatorService} to bill each night with.
+     * @param incrementMinutes the billing increment in minutes of each night.
+     * @param rounding the {@link RoundingMode} applied to the billed time of each night.
+     * @param firstDayOfWeek the {@link DayOfWeek} each payroll week starts on.
+     */
+    public PayrollEngine(CalculatorService calculatorService, int incrementMinutes, RoundingMode rounding,
+                         DayOfWeek firstDayOfWeek) {
+        this.calculatorService = calculatorService;
+        this.incrementMinutes = incrementMinutes;
+        this.rounding = rounding;
+        this.firstDayOfWeek = firstDayOfWeek;
+    }
+
+    /**
+     * Calculates the weekly pay of every sitter.
+     *
+     * @param engagements the {@link Engagement}s, in any order.
+     * @return a {@link PayrollLine} for every sitter and week with paid time, ordered by sitter then week.
+     * @throws IllegalArgumentException if the bedtime of an engagement is outside the window or after midnight.
+     */
+    public List<PayrollLine> calculate(Collection<Engagement> engagements) {
+        Engagement[] sorted = engagements.toArray(new Engagement[0]);
+        Arrays.parallelSort(sorted, BY_SITTER_AND_START);
+
+        List<Integer> sitterStarts = new ArrayList<>();
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || !sorted[i].getSitterId().equals(sorted[i - 1].getSitterId())) {
+                sitterStarts.add(i);
+            }
+        }
+        sitterStarts.add(sorted.length);
+
+        return IntStream.range(0, sitterStarts.size() - 1)
+                .parallel()
+                .mapToObj(i -> calculateSitter(sorted, sitterStarts.get(i), sitterStarts.get(i + 1)))
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Sweeps the engagements of one sitter, sorted by start, merging those that overlap or meet.
+     */
+    private List<PayrollLine> calculateSitter(Engagement[] sorted, int from, int to) {
+        WeekTotals week = new WeekTotals(sorted[from].getSitterId());
+        LocalDateTime spanStart = sorted[from].getStart();
+        LocalDateTime spanEnd = sorted[from].getEnd();
+        LocalTime bedtime = sorted[from].getBedtime();
+        for (int i = from + 1; i < to; i++) {
+            Engagement engagement = sorted[i];
+            if (!engagement.getStart().isAfter(spanEnd)) {
+                if (engagement.getEnd().isAfter(spanEnd)) {
+                    spanEnd = engagement.getEnd();
+                }
+            } else {
+                billSpan(spanStart, spanEnd, bedtime, week);
+                spanStart = engagement.getStart();
+                spanEnd = engagement.getEnd();
+                bedtime = engagement.getBedtime();
+            }
+        }
+        billSpan(spanStart, spanEnd, bedtime, week);
+        week.finish();
+        return week.lines;
+    }
+
+    /**
+     * Cuts a span into the nightly windows it covers and bills each of them.
+     */
+    private void billSpan(LocalDateTime spanStart, LocalDateTime spanEnd, LocalTime bedtime, WeekTotals week) {
+        int bedMinute = bedtime.getHour() * 60 + bedtime.getMinute();
+        LocalDate night = spanStart.toLocalTime().isBefore(TimeUtilities.END_TIME_MAXIMUM)
+                ? spanStart.toLocalDate().minusDays(1) : spanStart.toLocalDate();
+        LocalDateTime windowStart = night.atTime(TimeUtilities.START_TIME_MINIMUM);
+        while (windowStart.isBefore(spanEnd)) {
+            LocalDateTime windowEnd = night.plusDays(1).atTime(TimeUtilities.END_TIME_MAXIMUM);
+            LocalDateTime billedStart = spanStart.isAfter(windowStart) ? spanStart : windowStart;
+            LocalDateTime billedEnd = spanEnd.isBefore(windowEnd) ? spanEnd : windowEnd;
+            if (billedStart.isBefore(billedEnd)) {
+                int startMinute = billedStart.getHour() * 60 + billedStart.getMinute();
+                int endMinute = billedEnd.getHour() * 60 + billedEnd.getMinute();
+                int totalCents;
+                try {
+                    totalCents = calculatorService.calculateMinuteJobTotalCents(startMinute, bedMinute, endMinute,
+                            incrementMinutes, rounding);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Sitter " + week.sitterId + " on the night of " + night
+                            + ": " + e.getMessage(), e);
+                }
+                week.add(night, (endMinute - startMinute + 24 * 60) % (24 * 60), totalCents);
+            }
+            night = night.plusDays(1);
+            windowStart = night.atTime(TimeUtilities.START_TIME_MINIMUM);
+        }
+    }
+
+    /**
+     * Running totals of the current week of one sitter. Nights arrive in order, so a week is complete as soon as a
+     * night of a later week arrives.
+     */
+    private class WeekTotals {
+        private final String sitterId;
+        private final List<PayrollLine> lines = new ArrayList<>();
+        private LocalDate weekStart;
+        private LocalDate lastNight;
+        private int nights;
+        private long workedMinutes;
+        private long totalCents;
+
+        WeekTotals(String sitterId) {
+            this.sitterId = sitterId;
+        }
+
+        void add(LocalDate night, int minutes, int cents) {
+            LocalDate nightWeekStart = night.with(TemporalAdjusters.previousOrSame(firstDayOfWeek));
+            if (!nightWeekStart.equals(weekStart)) {
+                finish();
+                weekStart = nightWeekStart;
+            }
+            if (!night.equals(lastNight)) {
+                nights++;
+                lastNight = night;
+            }
+            workedMinutes += minutes;
+            totalCents += cents;
+        }
+
+        void finish() {
+            if (weekStart != null) {
+                lines.add(new PayrollLine(sitterId, weekStart, nights, workedMinutes, totalCents));
+            }
+            nights = 0;
+            workedMinutes = 0;
+            totalCents = 0;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.trsljs.payroll;
+
+import java.time.LocalDate;
+
+/**
+ * The pay of one sitter for one week.
+ *
+ * @author <a href="mailto:timothyrocksmith@gmail.com">Tim Smith</a>
+ */
+public class PayrollLine {
+    private final String sitterId;
+    private final LocalDate weekStart;
+    private final int nights;
+    private final long workedMinutes;
+    private final long totalCents;
+
+    PayrollLine(String sitterId, LocalDate weekStart, int nights, long workedMinutes, long totalCents) {
+        this.sitterId = sitterId;
+        this.weekStart = weekStart;
+        this.nights = nights;
+        this.workedMinutes = workedMinutes;
+        this.totalCents = totalCents;
+    }
+
+    public String getSitterId() {
+        return sitterId;
+    }
+
+    /**
+     * @return the {@link LocalDate} of the first day of the week. A night belongs to the week of the day it starts.
+     */
+    public LocalDate getWeekStart() {
+        return weekStart;
+    }
+
+    /**
+     * @return the number of nights worked in the week.
+     */
+    public int getNights() {
+        return nights;
+    }
+
+    /**
+     * @return the minutes worked within the babysitting window in the week, before rounding to billing increments.
+     */
+    public long getWorkedMinutes() {
+        return workedMinutes;
+    }
+
+    public long getTotalCents() {
+        return totalCents;
+    }
+
+    @Override
+    public String toString() {
+        return "PayrollLine{" + sitterId + ", week of " + weekStart + ": " + nights + " nights, " + workedMinutes
+                + " minutes, " + totalCents + " cents}";
+    }
+}
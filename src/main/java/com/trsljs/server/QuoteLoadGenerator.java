@@ -0,0 +1,180 @@
+package com.trsljs.server;
+
+import com.trsljs.service.CalculatorService;
+import com.trsljs.util.TimeUtilities;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load generator for the {@link QuoteServer}. Requests are sent at a fixed total rate for the given duration, split
+ * evenly over the client threads, each sending single quote requests over a kept-alive connection. Every request
+ * has a scheduled send time and its latency is measured from then, so when the server stalls the requests that
+ * should have been sent meanwhile are charged for the wait instead of being quietly delayed. Afterwards the
+ * throughput over the measured time and the latency percentiles are printed, latencies above 1s being reported as
+ * 1s. Without a URL an embedded server is started on a free port.
+ * <p>
+ * Usage: {@code QuoteLoadGenerator [url] [threads] [seconds] [requests per second]}, e.g.
+ * {@code QuoteLoadGenerator http://localhost:8080 64 30 20000}
+ *
+ * @author <a href="mailto:timothyrocksmith@gmail.com">Tim Smith</a>
+ */
+public class QuoteLoadGenerator {
+    /*
+     * Latencies are counted per 10 microseconds up to 1s, anything slower lands in the last bucket.
+     */
+    private static final int BUCKET_MICROS = 10;
+    private static final int LATENCY_BUCKETS = 100_000;
+    private static final int DEFAULT_RATE = 10_000;
+
+    public static void main(String[] args) throws Exception {
+        String url = args.length > 0 && !args[0].isEmpty() ? args[0] : null;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors() * 4;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int rate = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_RATE;
+        if (threads <= 0 || rate <= 0) {
+            throw new IllegalArgumentException("Threads and rate must be positive.");
+        }
+
+        QuoteServer embedded = null;
+        if (url == null) {
+            embedded = new QuoteServer(new CalculatorService(), 0);
+            embedded.start();
+            url = "http://localhost:" + embedded.getPort();
+        }
+        try {
+            run(url, threads, seconds, rate);
+        } finally {
+            if (embedded != null) {
+                embedded.stop(0);
+            }
+        }
+    }
+
+    private static void run(String baseUrl, int threads, int seconds, int rate) throws InterruptedException {
+        String[] requests = createRequests(baseUrl);
+        long intervalNanos = 1_000_000_000L * threads / rate;
+        long startNanos = System.nanoTime();
+        long deadline = startNanos + seconds * 1_000_000_000L;
+        AtomicLong errors = new AtomicLong();
+        List<long[]> histograms = new ArrayList<>();
+        List<Thread> clients = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long[] histogram = new long[LATENCY_BUCKETS];
+            histograms.add(histogram);
+            int client = t;
+            Thread thread = new Thread(() -> {
+                Random random = new Random(client);
+                byte[] buffer = new byte[512];
+                // Spread the clients' schedules over one interval so they do not all send at once.
+                long scheduled = startNanos + intervalNanos * client / threads;
+                for (; scheduled < deadline; scheduled += intervalNanos) {
+                    long wait = scheduled - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    if (!send(requests[random.nextInt(requests.length)], buffer)) {
+                        errors.incrementAndGet();
+                    }
+                    long micros = (System.nanoTime() - scheduled) / 1000;
+                    histogram[(int) Math.min(LATENCY_BUCKETS - 1, micros / BUCKET_MICROS)]++;
+                }
+            }, "quote-client-" + t);
+            clients.add(thread);
+            thread.start();
+        }
+        for (Thread thread : clients) {
+            thread.join();
+        }
+        double elapsedSeconds = (System.nanoTime() - startNanos) / 1e9;
+
+        long[] merged = new long[LATENCY_BUCKETS];
+        long total = 0;
+        for (long[] histogram : histograms) {
+            for (int i = 0; i < LATENCY_BUCKETS; i++) {
+                merged[i] += histogram[i];
+                total += histogram[i];
+            }
+        }
+        System.out.printf("Requests: %d, errors: %d, target rate: %d/s, throughput: %.0f/s over %.1fs%n", total,
+                errors.get(), rate, total / elapsedSeconds, elapsedSeconds);
+        if (total > 0) {
+            System.out.printf("Latency us p50: %d, p90: %d, p99: %d, p99.9: %d, max: %d%n",
+                    percentile(merged, total, 0.5), percentile(merged, total, 0.9), percentile(merged, total, 0.99),
+                    percentile(merged, total, 0.999), percentile(merged, total, 1.0));
+        }
+    }
+
+    /**
+     * Sends one request and reads the whole response, from the error stream for a failed request, so the
+     * connection can be kept alive.
+     *
+     * @return true iff the server answered 200.
+     */
+    private static boolean send(String url, byte[] buffer) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+            boolean ok = connection.getResponseCode() == 200;
+            try (InputStream in = ok ? connection.getInputStream() : connection.getErrorStream()) {
+                if (in != null) {
+                    while (in.read(buffer) >= 0) {
+                        // drain so the connection is kept alive
+                    }
+                }
+            }
+            return ok;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates a quote request for every valid whole hour job.
+     */
+    private static String[] createRequests(String baseUrl) {
+        List<String> starts = TimeUtilities.getValidStartTimes().subList(1, TimeUtilities.getValidStartTimes().size());
+        List<String> beds = TimeUtilities.getValidBedtimes().subList(1, TimeUtilities.getValidBedtimes().size());
+        List<String> ends = TimeUtilities.getValidEndTimes().subList(1, TimeUtilities.getValidEndTimes().size());
+        List<String> requests = new ArrayList<>();
+        for (int s = 0; s < starts.size(); s++) {
+            for (String bed : beds) {
+                for (int e = s; e < ends.size(); e++) {
+                    requests.add(baseUrl + "/quote?start=" + encode(starts.get(s)) + "&bed=" + encode(bed)
+                            + "&end=" + encode(ends.get(e)));
+                }
+            }
+        }
+        return requests.toArray(new String[0]);
+    }
+
+    /**
+     * @return the latency in microseconds that the fraction of requests were at or below.
+     */
+    private static int percentile(long[] histogram, long total, double fraction) {
+        long target = (long) Math.ceil(total * fraction);
+        long seen = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            seen += histogram[i];
+            if (seen >= target) {
+                return (i + 1) * BUCKET_MICROS;
+            }
+        }
+        return histogram.length * BUCKET_MICROS;
+    }
+
+    private static String encode(String value) {
+        try {
+            return URLEncoder.encode(value, "UTF-8");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
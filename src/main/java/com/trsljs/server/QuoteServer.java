@@ -0,0 +1,248 @@
+package com.trsljs.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.trsljs.metrics.CalculatorMetrics;
+import com.trsljs.service.CalculatorService;
+import com.trsljs.service.JobTotal;
+import com.trsljs.util.ExecutorUtilities;
+import com.trsljs.util.JobValidation;
+import com.trsljs.util.JobValidator;
+import com.trsljs.util.TimeUtilities;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Embedded HTTP server quoting job totals from the {@link CalculatorService}. Requests keep no state on the server.
+ * <ul>
+ *     <li>{@code GET /quote?start=05:00 PM&bed=09:00 PM&end=02:00 AM} answers with the total of one job as JSON.</li>
+ *     <li>{@code POST /quote/batch} takes one job per line as {@code start,bed,end} and answers with each line
+ *     followed by its total, or by {@code ERROR} and the reason the job is invalid. The answer is streamed as each
+ *     line is quoted, so a batch of any size is answered in constant memory.</li>
+ * </ul>
+ * Totals are quoted in whole hours, so a job with a time that is not on the hour is rejected rather than having the
+ * part hour dropped.
+ * Requests are handled on virtual threads when the JVM provides them, otherwise on a fixed pool of threads.
+ *
+ * @author <a href="mailto:timothyrocksmith@gmail.com">Tim Smith</a>
+ */
+public class QuoteServer {
+    public static final int DEFAULT_PORT = 8080;
+    private static final int BACKLOG = 1024;
+
+    static {
+        /*
+         * Without TCP_NODELAY the response headers and body are held back by delayed acknowledgements, adding
+         * around 40ms to every kept-alive request. The property is read once when the JDK server is first used.
+         */
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final CalculatorService calculatorService;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Creates the server bound to the port. The server does not accept requests until {@link #start()}.
+     *
+     * @param calculatorService the {@link CalculatorService} to quote from.
+     * @param port the port to listen on, 0 for any free port.
+     * @throws IOException if the port cannot be bound.
+     */
+    public QuoteServer(CalculatorService calculatorService, int port) throws IOException {
+        this.calculatorService = calculatorService;
+        this.server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        this.executor = createExecutor();
+        server.setExecutor(executor);
+        server.createContext("/quote", this::handleQuote);
+        server.createContext("/quote/batch", this::handleBatchQuote);
+    }
+
+    /**
+     * Runs the server from the command line arguments {@code --serve [port]}.
+     *
+     * @param args the command line arguments.
+     */
+    public static void main(String[] args) {
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PORT;
+        try {
+            CalculatorMetrics.registerMBeans();
+            QuoteServer quoteServer = new QuoteServer(new CalculatorService(), port);
+            quoteServer.start();
+            System.out.println("Quoting on port " + quoteServer.getPort());
+        } catch (IOException e) {
+            System.err.println("Server failed to start: " + e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests and waits up to the delay for requests in progress to finish.
+     *
+     * @param delaySeconds the maximum time in seconds to wait.
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    /**
+     * @return the port the server is listening on.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handleQuote(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            respond(exchange, 405, "text/plain", "Use GET.\n");
+            return;
+        }
+        String start = null;
+        String bed = null;
+        String end = null;
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                int equals = parameter.indexOf('=');
+                if (equals < 0) {
+                    continue;
+                }
+                String name = parameter.substring(0, equals);
+                String value = decode(parameter.substring(equals + 1));
+                if ("start".equals(name)) {
+                    start = value;
+                } else if ("bed".equals(name)) {
+                    bed = value;
+                } else if ("end".equals(name)) {
+                    end = value;
+                }
+            }
+        }
+        if (start == null || bed == null || end == null) {
+            respond(exchange, 400, "text/plain", "Parameters start, bed and end are required.\n");
+            return;
+        }
+        try {
+            JobTotal total = quote(start, bed, end);
+            respond(exchange, 200, "application/json", "{\"totalCents\":" + total.getTotalCents()
+                    + ",\"total\":\"" + formatCents(total.getTotalCents())
+                    + "\",\"scheduleVersion\":\"" + total.getScheduleVersion().replace("\"", "\\\"") + "\"}\n");
+        } catch (IllegalArgumentException e) {
+            respond(exchange, 400, "text/plain", e.getMessage() + "\n");
+        }
+    }
+
+    private void handleBatchQuote(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            respond(exchange, 405, "text/plain", "Use POST.\n");
+            return;
+        }
+        /*
+         * The response is sent chunked, each line written as soon as it is quoted, so memory does not grow with the
+         * size of the request.
+         */
+        exchange.getResponseHeaders().set("Content-Type", "text/csv");
+        exchange.sendResponseHeaders(200, 0);
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(exchange.getRequestBody(), StandardCharsets.US_ASCII));
+             Writer response = new BufferedWriter(
+                     new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                response.append(line).append(',');
+                String[] fields = line.split(",", -1);
+                if (fields.length != 3) {
+                    response.append("ERROR Expected start time, bedtime and end time\n");
+                    continue;
+                }
+                try {
+                    response.append(formatCents(quote(fields[0], fields[1], fields[2]).getTotalCents())).append('\n');
+                } catch (IllegalArgumentException e) {
+                    response.append("ERROR ").append(e.getMessage()).append('\n');
+                }
+            }
+        }
+    }
+
+    /**
+     * Validates and quotes one job.
+     *
+     * @throws IllegalArgumentException if a time cannot be parsed or the job is invalid.
+     */
+    private JobTotal quote(String start, String bed, String end) {
+        int startMinute = parseTime(start);
+        int bedMinute = parseTime(bed);
+        int endMinute = parseTime(end);
+        JobValidation validation = JobValidator.validateWholeHours(startMinute, bedMinute, endMinute);
+        if (!validation.isValid()) {
+            throw new IllegalArgumentException(validation.getMessage());
+        }
+        return calculatorService.quoteJobTotal(TimeUtilities.hourOf(startMinute), TimeUtilities.hourOf(bedMinute),
+                TimeUtilities.hourOf(endMinute));
+    }
+
+    private static int parseTime(String text) {
+        try {
+            return TimeUtilities.parseTime(text.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid time '" + text + "'.", e);
+        }
+    }
+
+    private static String decode(String value) {
+        try {
+            return URLDecoder.decode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String formatCents(int cents) {
+        return cents / 100 + "." + (cents % 100 < 10 ? "0" : "") + cents % 100;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, String body)
+            throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Creates an executor running each request on a new virtual thread when the JVM provides them, otherwise a fixed
+     * pool sized to keep every core busy while some requests wait on the network.
+     */
+    private static ExecutorService createExecutor() {
+        try {
+            return ExecutorUtilities.newVirtualThreadExecutor();
+        } catch (UnsupportedOperationException e) {
+            return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 4);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.trsljs.service;
+
+/**
+ * Result of a batch calculation holding the total of each job and the sum of all totals.
+ *
+ * @author <a href="mailto:timothyrocksmith@gmail.com">Tim Smith</a>
+ */
+public class BatchResult {
+    private final int[] totalsCents;
+    private final long sumCents;
+    private final String scheduleVersion;
+
+    BatchResult(int[] totalsCents, long sumCents, String scheduleVersion) {
+        this.totalsCents = totalsCents;
+        this.sumCents = sumCents;
+        this.scheduleVersion = scheduleVersion;
+    }
+
+    /**
+     * @return the number of jobs in the batch.
+     */
+    public int size() {
+        return totalsCents.length;
+    }
+
+    /**
+     * @param index the index of the job in the batch.
+     * @return the total charge in cents of the job.
+     */
+    public int getTotalCents(int index) {
+        return totalsCents[index];
+    }
+
+    /**
+     * @return a copy of the total charge in cents of every job, in batch order.
+     */
+    public int[] getTotalsCents() {
+        return totalsCents.clone();
+    }
+
+    /**
+     * @return the sum of the total charges in cents of every job.
+     */
+    public long getSumCents() {
+        return sumCents;
+    }
+
+    /**
+     * @return the {@link RateSchedule#getVersion()} of the schedule used for every job in the batch.
+     */
+    public String getScheduleVersion() {
+        return scheduleVersion;
+    }
+}
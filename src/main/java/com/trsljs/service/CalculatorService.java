@@ -1,19 +1,39 @@
 package com.trsljs.service;
 
+import com.trsljs.metrics.CalculatorMetrics;
+import com.trsljs.util.JobValidator;
 import com.trsljs.util.TimeUtilities;
 
-import java.text.NumberFormat;
+import java.io.IOException;
+import java.math.RoundingMode;
+import java.nio.file.Path;
 import java.time.LocalTime;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Service for the Babysitting Calculator
+ * <p>
+ * Calls are recorded in {@link CalculatorMetrics} when metrics are enabled.
  *
  * @author <a href="mailto:timothyrocksmith@gmail.com">Tim Smith</a>
  */
 public class CalculatorService {
-    private static final int START_TO_BEDTIME_RATE = 12;
-    private static final int BEDTIME_TO_MIDNIGHT_RATE = 8;
-    private static final int MIDNIGHT_TO_END_RATE = 16;
+    private final AtomicReference<RateSchedule> rateSchedule;
+
+    public CalculatorService() {
+        this(RateSchedule.DEFAULT);
+    }
+
+    /**
+     * @param rateSchedule the {@link RateSchedule} to calculate totals from.
+     */
+    public CalculatorService(RateSchedule rateSchedule) {
+        this.rateSchedule = new AtomicReference<>(Objects.requireNonNull(rateSchedule));
+    }
 
     /**
      * Calculates the total charge for a single day of babysitting from the given times.
@@ -24,60 +44,179 @@ public class CalculatorService {
      * @return {@link String} formatted to currency of the calculation.
      */
     public String calculateJobTotal(LocalTime startTime, LocalTime bedtime, LocalTime endTime) {
-        // Adjust the times to start at midnight to simplify calculations.
-        LocalTime adjustedStartTime = TimeUtilities.adjustTimePeriod(startTime);
-        LocalTime adjustedBedTime = TimeUtilities.adjustTimePeriod(bedtime);
-        LocalTime adjustedEndTime = TimeUtilities.adjustTimePeriod(endTime);
-        LocalTime adjustedMidnight = TimeUtilities.ADJUSTED_MIDNIGHT;
+        return CalculatorMetrics.CALCULATE_JOB_TOTAL.time(() -> formatJobTotal(startTime, bedtime, endTime));
+    }
+
+    private String formatJobTotal(LocalTime startTime, LocalTime bedtime, LocalTime endTime) {
+        RateSchedule schedule = rateSchedule.get();
+        int totalCents = schedule.jobTotalCents(startTime.getHour(), bedtime.getHour(), endTime.getHour());
 
         /*
-         * If the start time is later than the bed time, we are in the bedtime to midnight rate, so we
-         * adjust the bedtime to the same as start time so the start time to bedtime hours is 0 for the calculations.
-         */
-        if (adjustedStartTime.isAfter(adjustedBedTime)) {
-            adjustedBedTime = adjustedStartTime;
-        }
-        /*
-         * If the start time is midnight or after, we are in the midnight to end rate, but we don't want to calculate
-         * from midnight, so adjust midnight to start time for the calculation
-        */
-        if (adjustedStartTime.isAfter(adjustedMidnight)) {
-            adjustedMidnight = adjustedStartTime;
-        }
-        /*
-         * In cases where the shift ends before midnight, we adjust midnight to be the end time so the calculations
-         * do not record hours until midnight of after.
-         */
-        if (adjustedEndTime.isBefore(adjustedMidnight)) {
-            adjustedMidnight = adjustedEndTime;
-        }
-        /*
-         * When the end time is before bedtime adjust bedtime so no hours are counted for bedtime.
+         * Format the result with the text rendered when the schedule was first formatted for the locale
          */
-        if (adjustedEndTime.isBefore(adjustedBedTime)) {
-            adjustedBedTime = adjustedEndTime;
+        return schedule.getTotalFormatter(Locale.getDefault(Locale.Category.FORMAT)).format(totalCents);
+    }
+
+    /**
+     * @param locale the {@link Locale} to format for.
+     * @return the {@link TotalFormatter} of the current {@link RateSchedule} for the locale, to format totals
+     * returned in cents without creating a {@link java.text.NumberFormat}.
+     */
+    public TotalFormatter getTotalFormatter(Locale locale) {
+        return rateSchedule.get().getTotalFormatter(locale);
+    }
+
+    /**
+     * Looks up the total charge in cents for a single day of babysitting from the given whole hours.
+     * The answer comes from a table built when the current {@link RateSchedule} was compiled, so this method performs
+     * no allocation.
+     *
+     * @param startHour the start hour of the day (0-23) chosen.
+     * @param bedHour the bedtime hour of the day (0-23) chosen.
+     * @param endHour the end hour of the day (0-23) chosen.
+     * @return the total charge in cents.
+     * @throws IllegalArgumentException if a time is outside the babysitting window, the bedtime is after midnight
+     * or the start time is after the end time.
+     */
+    public int calculateJobTotalCents(int startHour, int bedHour, int endHour) {
+        return CalculatorMetrics.CALCULATE_JOB_TOTAL_CENTS.timeInt(
+                () -> rateSchedule.get().jobTotalCents(startHour, bedHour, endHour));
+    }
+
+    /**
+     * Looks up the total charge in cents for a single day of babysitting from the given whole hours, recording the
+     * version of the {@link RateSchedule} used.
+     *
+     * @param startHour the start hour of the day (0-23) chosen.
+     * @param bedHour the bedtime hour of the day (0-23) chosen.
+     * @param endHour the end hour of the day (0-23) chosen.
+     * @return the {@link JobTotal} of the job.
+     * @throws IllegalArgumentException if the job is invalid, see {@link #calculateJobTotalCents(int, int, int)}.
+     */
+    public JobTotal quoteJobTotal(int startHour, int bedHour, int endHour) {
+        return CalculatorMetrics.QUOTE_JOB_TOTAL.time(() -> quote(startHour, bedHour, endHour));
+    }
+
+    private JobTotal quote(int startHour, int bedHour, int endHour) {
+        RateSchedule schedule = rateSchedule.get();
+        return new JobTotal(schedule.jobTotalCents(startHour, bedHour, endHour), schedule.getVersion());
+    }
+
+    /**
+     * Finds the latest whole hour a job can end without its total going over the budget, answering "how late can
+     * the sitter stay for this much?". The answer agrees with {@link #calculateJobTotalCents(int, int, int)} and is
+     * found by a binary search of the totals of the current {@link RateSchedule}, without allocation.
+     *
+     * @param startHour the start hour of the day (0-23) chosen.
+     * @param bedHour the bedtime hour of the day (0-23) chosen.
+     * @param budgetCents the most that may be spent, in cents.
+     * @return the latest end hour of the day (0-23) within the budget, no later than
+     * {@link TimeUtilities#END_TIME_MAXIMUM}, or -1 if the budget does not cover the first hour.
+     * @throws IllegalArgumentException if the start time is outside the babysitting window, the bedtime is outside
+     * the window or after midnight, or the budget is negative.
+     */
+    public int findLatestEndHour(int startHour, int bedHour, int budgetCents) {
+        return CalculatorMetrics.FIND_LATEST_END_HOUR.timeInt(
+                () -> rateSchedule.get().latestEndHour(startHour, bedHour, budgetCents));
+    }
+
+    /**
+     * Finds the latest end time of a job within the budget, see {@link #findLatestEndHour(int, int, int)}.
+     *
+     * @param startTime the {@link LocalTime} start time chosen.
+     * @param bedtime the {@link LocalTime} bedtime chosen.
+     * @param budgetCents the most that may be spent, in cents.
+     * @return the latest {@link LocalTime} end time within the budget, or null if the budget does not cover the
+     * first hour.
+     */
+    public LocalTime findLatestEndTime(LocalTime startTime, LocalTime bedtime, int budgetCents) {
+        int endHour = findLatestEndHour(startTime.getHour(), bedtime.getHour(), budgetCents);
+        return endHour < 0 ? null : LocalTime.of(endHour, 0);
+    }
+
+    /**
+     * Calculates the total charge in cents for a single day of babysitting to the minute. The billed time from the
+     * start time to the end time is rounded to a whole number of increments using the rounding mode, then the total
+     * is read from cumulative pay tables, so the cost does not depend on the length of the shift.
+     * Fractions of a cent are rounded half up.
+     *
+     * @param startMinute the start minute of the day (0-1439) chosen.
+     * @param bedMinute the bedtime minute of the day (0-1439) chosen.
+     * @param endMinute the end minute of the day (0-1439) chosen.
+     * @param incrementMinutes the billing increment in minutes, e.g. 1, 15 or 60.
+     * @param rounding the {@link RoundingMode} applied to the billed time; {@link RoundingMode#FLOOR},
+     * {@link RoundingMode#CEILING} and {@link RoundingMode#HALF_UP} round down, up and to the nearest increment.
+     * @return the total charge in cents.
+     * @throws IllegalArgumentException if a time is outside the babysitting window, the bedtime is after midnight,
+     * the start time is after the end time or the increment is not positive.
+     * @throws ArithmeticException if the rounding mode is {@link RoundingMode#UNNECESSARY} and the billed time is
+     * not a whole number of increments.
+     */
+    public int calculateMinuteJobTotalCents(int startMinute, int bedMinute, int endMinute, int incrementMinutes,
+                                            RoundingMode rounding) {
+        return CalculatorMetrics.CALCULATE_MINUTE_JOB_TOTAL_CENTS.timeInt(
+                () -> rateSchedule.get().minuteJobTotalCents(startMinute, bedMinute, endMinute, incrementMinutes,
+                        rounding));
+    }
+
+    /**
+     * Calculates the total charge in cents for every job in a batch, spreading the work over all cores.
+     * The jobs are given as parallel arrays of whole hours where index i of each array describes job i.
+     *
+     * @param startHours the start hour of the day (0-23) of each job.
+     * @param bedHours the bedtime hour of the day (0-23) of each job.
+     * @param endHours the end hour of the day (0-23) of each job.
+     * @return the {@link BatchResult} holding the total of each job and the sum of all totals.
+     * @throws IllegalArgumentException if the arrays differ in length or any job is invalid.
+     */
+    public BatchResult calculateJobTotals(int[] startHours, int[] bedHours, int[] endHours) {
+        if (startHours.length != bedHours.length || startHours.length != endHours.length) {
+            throw new IllegalArgumentException("Start, bed and end hours must have the same number of jobs.");
         }
+        return CalculatorMetrics.CALCULATE_JOB_TOTALS.time(() -> calculateBatch(startHours, bedHours, endHours));
+    }
 
+    private BatchResult calculateBatch(int[] startHours, int[] bedHours, int[] endHours) {
+        RateSchedule schedule = rateSchedule.get();
+        int[] totalsCents = new int[startHours.length];
+        BatchTask task = new BatchTask(schedule, startHours, bedHours, endHours, totalsCents, 0, totalsCents.length);
         /*
-         * Calculate the number of hours for each time period of pay.
+         * A batch of a single chunk is calculated on the calling thread, handing it to the pool costs more than it.
          */
-        int hoursUntilBedtime = adjustedBedTime.getHour() - adjustedStartTime.getHour();
-        int hoursBedtimeUntilMidnight = adjustedMidnight.getHour() - adjustedBedTime.getHour();
-        int hoursMidnightUntilEnd = adjustedEndTime.getHour() - adjustedMidnight.getHour();
+        long sumCents = totalsCents.length <= BatchTask.CHUNK_SIZE ? task.compute()
+                : ForkJoinPool.commonPool().invoke(task);
+        return new BatchResult(totalsCents, sumCents, schedule.getVersion());
+    }
 
-        /*
-         * Calculate the total charge for each time period and add them to the total;
-         */
-        int pay = hoursUntilBedtime * START_TO_BEDTIME_RATE;
-        pay += hoursBedtimeUntilMidnight * BEDTIME_TO_MIDNIGHT_RATE;
-        pay += hoursMidnightUntilEnd * MIDNIGHT_TO_END_RATE;
+    /**
+     * @return the {@link RateSchedule} totals are currently calculated from.
+     */
+    public RateSchedule getRateSchedule() {
+        return rateSchedule.get();
+    }
 
-        /*
-         * Format the result
-         */
-        NumberFormat format = NumberFormat.getCurrencyInstance();
+    /**
+     * Replaces the {@link RateSchedule} totals are calculated from. Calculations already in progress finish with the
+     * schedule they started with.
+     *
+     * @param schedule the new {@link RateSchedule}.
+     */
+    public void setRateSchedule(RateSchedule schedule) {
+        rateSchedule.set(Objects.requireNonNull(schedule));
+    }
 
-        return format.format(pay);
+    /**
+     * Loads a {@link RateSchedule} from a file and calculates all further totals from it.
+     *
+     * @param file the {@link Path} of the schedule file, see {@link RateSchedule#load(Path)}.
+     * @return the loaded {@link RateSchedule}.
+     * @throws IOException if the file cannot be read.
+     * @throws IllegalArgumentException if the file does not describe a valid schedule.
+     */
+    public RateSchedule reloadRateSchedule(Path file) throws IOException {
+        RateSchedule schedule = RateSchedule.load(file);
+        setRateSchedule(schedule);
+        return schedule;
     }
 
     /**
@@ -85,8 +224,51 @@ public class CalculatorService {
      * @param startTime the {@link LocalTime} start time
      * @param endTime the {@link LocalTime} end time
      * @return true iff start time is later than end time.
+     * @deprecated the rules for a valid job, including this one, live in {@link JobValidator}; use
+     * {@link JobValidator#validate(LocalTime, LocalTime, LocalTime)}, which reports
+     * {@link com.trsljs.util.JobValidation#START_AFTER_END} for such a job.
      */
+    @Deprecated
     public boolean isStartTimeAfterEndTime(LocalTime startTime, LocalTime endTime) {
         return TimeUtilities.adjustTimePeriod(startTime).isAfter(TimeUtilities.adjustTimePeriod(endTime));
     }
+
+    /**
+     * Splits a batch into chunks, filling in the totals of each chunk and returning the sum of its totals.
+     * Chunks are kept large enough that each leaf runs a long, simple loop the JIT can optimize.
+     */
+    private static class BatchTask extends RecursiveTask<Long> {
+        private static final int CHUNK_SIZE = 8192;
+
+        private final RateSchedule schedule;
+        private final int[] startHours;
+        private final int[] bedHours;
+        private final int[] endHours;
+        private final int[] totalsCents;
+        private final int from;
+        private final int to;
+
+        BatchTask(RateSchedule schedule, int[] startHours, int[] bedHours, int[] endHours, int[] totalsCents,
+                  int from, int to) {
+            this.schedule = schedule;
+            this.startHours = startHours;
+            this.bedHours = bedHours;
+            this.endHours = endHours;
+            this.totalsCents = totalsCents;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Long compute() {
+            if (to - from <= CHUNK_SIZE) {
+                return schedule.jobTotalsCents(startHours, bedHours, endHours, totalsCents, from, to);
+            }
+            int middle = (from + to) >>> 1;
+            BatchTask left = new BatchTask(schedule, startHours, bedHours, endHours, totalsCents, from, middle);
+            left.fork();
+            long rightSum = new BatchTask(schedule, startHours, bedHours, endHours, totalsCents, middle, to).compute();
+            return left.join() + rightSum;
+        }
+    }
 }
@@ -0,0 +1,35 @@
+package com.trsljs.service;
+
+/**
+ * Total charge of a job together with the version of the {@link RateSchedule} that produced it.
+ *
+ * @author <a href="mailto:timothyrocksmith@gmail.com">Tim Smith</a>
+ */
+public class JobTotal {
+    private final int totalCents;
+    private final String scheduleVersion;
+
+    JobTotal(int totalCents, String scheduleVersion) {
+        this.totalCents = totalCents;
+        this.scheduleVersion = scheduleVersion;
+    }
+
+    /**
+     * @return the total charge in cents.
+     */
+    public int getTotalCents() {
+        return totalCents;
+    }
+
+    /**
+     * @return the {@link RateSchedule#getVersion()} of the schedule used for the calculation.
+     */
+    public String getScheduleVersion() {
+        return scheduleVersion;
+    }
+
+    @Override
+    public String toString() {
+        return totalCents + " cents (schedule " + scheduleVersion + ")";
+    }
+}
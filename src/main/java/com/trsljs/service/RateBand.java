@@ -0,0 +1,56 @@
+package com.trsljs.service;
+
+import com.trsljs.util.TimeUtilities;
+
+import java.time.LocalTime;
+
+/**
+ * A period of the babysitting window with the hourly rates paid while the child is awake and asleep.
+ *
+ * @author <a href="mailto:timothyrocksmith@gmail.com">Tim Smith</a>
+ */
+public class RateBand {
+    private final LocalTime from;
+    private final LocalTime to;
+    private final int awakeCentsPerHour;
+    private final int asleepCentsPerHour;
+
+    /**
+     * @param from the {@link LocalTime} the band starts at.
+     * @param to the {@link LocalTime} the band ends at, exclusive.
+     * @param awakeCentsPerHour the hourly rate in cents before bedtime.
+     * @param asleepCentsPerHour the hourly rate in cents from bedtime on.
+     * @throws IllegalArgumentException if a rate is negative.
+     */
+    public RateBand(LocalTime from, LocalTime to, int awakeCentsPerHour, int asleepCentsPerHour) {
+        if (awakeCentsPerHour < 0 || asleepCentsPerHour < 0) {
+            throw new IllegalArgumentException("Rates must not be negative.");
+        }
+        this.from = from;
+        this.to = to;
+        this.awakeCentsPerHour = awakeCentsPerHour;
+        this.asleepCentsPerHour = asleepCentsPerHour;
+    }
+
+    public LocalTime getFrom() {
+        return from;
+    }
+
+    public LocalTime getTo() {
+        return to;
+    }
+
+    public int getAwakeCentsPerHour() {
+        return awakeCentsPerHour;
+    }
+
+    public int getAsleepCentsPerHour() {
+        return asleepCentsPerHour;
+    }
+
+    @Override
+    public String toString() {
+        return from.format(TimeUtilities.TIME_FORMATTER) + "-" + to.format(TimeUtilities.TIME_FORMATTER)
+                + " awake " + awakeCentsPerHour + " asleep " + asleepCentsPerHour;
+    }
+}
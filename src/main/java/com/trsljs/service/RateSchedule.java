@@ -0,0 +1,461 @@
+package com.trsljs.service;
+
+import com.trsljs.util.JobValidation;
+import com.trsljs.util.JobValidator;
+import com.trsljs.util.TimeUtilities;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Immutable schedule of the rates paid over the babysitting window, compiled into lookup tables when it is created
+ * so calculations never have to walk the bands. The bands must cover the window from
+ * {@link TimeUtilities#START_TIME_MINIMUM} to {@link TimeUtilities#END_TIME_MAXIMUM} in order without gaps.
+ *
+ * @author <a href="mailto:timothyrocksmith@gmail.com">Tim Smith</a>
+ */
+public class RateSchedule {
+    private static final int START_TO_BEDTIME_RATE = 1200;
+    private static final int BEDTIME_TO_MIDNIGHT_RATE = 800;
+    private static final int MIDNIGHT_TO_END_RATE = 1600;
+
+    static final int WINDOW_SLOTS = TimeUtilities.ADJUSTED_END_TIME_MAXIMUM.getHour() + 1;
+    static final int BEDTIME_SLOTS = TimeUtilities.ADJUSTED_MIDNIGHT.getHour() + 1;
+    static final int WINDOW_MINUTES = TimeUtilities.ADJUSTED_END_TIME_MAXIMUM.getHour() * 60;
+    static final int MIDNIGHT_MINUTE = TimeUtilities.ADJUSTED_MIDNIGHT.getHour() * 60;
+
+    /** Band of a job from the start time until bedtime. */
+    public static final int BAND_UNTIL_BEDTIME = 0;
+    /** Band of a job from bedtime until midnight. */
+    public static final int BAND_BEDTIME_UNTIL_MIDNIGHT = 1;
+    /** Band of a job from midnight until the end time. */
+    public static final int BAND_MIDNIGHT_UNTIL_END = 2;
+    /** Number of bands a job is split into. */
+    public static final int BANDS = 3;
+
+    /*
+     * The branch-free batch kernel is used unless the JVM is started with -Dbabysitter.batch.kernel=false, which
+     * allows comparing it with looking up one job at a time.
+     */
+    static final boolean BATCH_KERNEL = !"false".equals(System.getProperty("babysitter.batch.kernel"));
+    private static final int BATCH_HOUR_BITS = 5;
+    private static final int BATCH_HOUR_MASK = (1 << BATCH_HOUR_BITS) - 1;
+
+    /**
+     * The schedule of the standard rates: $12 an hour until bedtime, $8 an hour from bedtime until midnight and
+     * $16 an hour from midnight until the end of the job.
+     */
+    public static final RateSchedule DEFAULT = new RateSchedule("default", Arrays.asList(
+            new RateBand(TimeUtilities.START_TIME_MINIMUM, LocalTime.MIDNIGHT, START_TO_BEDTIME_RATE,
+                    BEDTIME_TO_MIDNIGHT_RATE),
+            new RateBand(LocalTime.MIDNIGHT, TimeUtilities.END_TIME_MAXIMUM, MIDNIGHT_TO_END_RATE,
+                    MIDNIGHT_TO_END_RATE)));
+
+    private final String version;
+    private final List<RateBand> bands;
+    /*
+     * Cumulative pay from the start of the window to each minute of the window, in sixtieths of a cent so that
+     * every minute adds a whole number. Awake pay is earned before bedtime, asleep pay from bedtime on.
+     */
+    private final int[] awakePay;
+    private final int[] asleepPay;
+    private final int[] jobTotalCents;
+    /*
+     * The same totals indexed directly by the unadjusted hours of the day, five bits each, with -1 for every
+     * invalid job, so the batch kernel needs neither adjustment nor range checks.
+     */
+    private final int[] batchTotalCents;
+    private final ConcurrentMap<Locale, TotalFormatter> totalFormatters = new ConcurrentHashMap<>();
+
+    /**
+     * Creates and compiles a schedule.
+     *
+     * @param version the version recorded with every total calculated from this schedule.
+     * @param bands the {@link RateBand}s covering the babysitting window in order.
+     * @throws IllegalArgumentException if the bands do not cover the babysitting window in order without gaps.
+     */
+    public RateSchedule(String version, List<RateBand> bands) {
+        this.version = version;
+        this.bands = Collections.unmodifiableList(new ArrayList<>(bands));
+        int[] awakeRates = new int[WINDOW_MINUTES];
+        int[] asleepRates = new int[WINDOW_MINUTES];
+        int minute = 0;
+        for (RateBand band : this.bands) {
+            int from = TimeUtilities.adjustMinute(band.getFrom().getHour() * 60 + band.getFrom().getMinute());
+            int to = TimeUtilities.adjustMinute(band.getTo().getHour() * 60 + band.getTo().getMinute());
+            if (from != minute || to <= from || to > WINDOW_MINUTES) {
+                throw new IllegalArgumentException("Rate band " + band + " does not follow on from the previous band.");
+            }
+            Arrays.fill(awakeRates, from, to, band.getAwakeCentsPerHour());
+            Arrays.fill(asleepRates, from, to, band.getAsleepCentsPerHour());
+            minute = to;
+        }
+        if (minute != WINDOW_MINUTES) {
+            throw new IllegalArgumentException("Rate bands must cover the window until "
+                    + TimeUtilities.END_TIME_MAXIMUM.format(TimeUtilities.TIME_FORMATTER) + ".");
+        }
+        this.awakePay = cumulativePay(awakeRates);
+        this.asleepPay = cumulativePay(asleepRates);
+        this.jobTotalCents = buildJobTotalTable();
+        this.batchTotalCents = buildBatchTotalTable();
+    }
+
+    /**
+     * Loads a schedule from a properties file holding a {@code version} and numbered bands starting from 1, each band
+     * giving its start time, end time, awake rate and asleep rate in dollars per hour, e.g.
+     * <pre>
+     * version=2
+     * band.1=05:00 PM,12:00 AM,12.00,8.00
+     * band.2=12:00 AM,04:00 AM,16.00,16.00
+     * </pre>
+     *
+     * @param file the {@link Path} of the schedule file.
+     * @return the compiled {@link RateSchedule}.
+     * @throws IOException if the file cannot be read.
+     * @throws IllegalArgumentException if the file does not describe a valid schedule.
+     */
+    public static RateSchedule load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        String version = properties.getProperty("version");
+        if (version == null || version.trim().isEmpty()) {
+            throw new IllegalArgumentException("Rate schedule " + file + " has no version.");
+        }
+        List<RateBand> bands = new ArrayList<>();
+        for (int i = 1; properties.containsKey("band." + i); i++) {
+            bands.add(parseBand(properties.getProperty("band." + i)));
+        }
+        return new RateSchedule(version.trim(), bands);
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public List<RateBand> getBands() {
+        return bands;
+    }
+
+    /**
+     * Returns the formatter of this schedule's totals in the currency of the locale, rendering every total a job of
+     * whole hours can reach the first time the locale is asked for.
+     *
+     * @param locale the {@link Locale} to format for.
+     * @return the shared {@link TotalFormatter}.
+     */
+    public TotalFormatter getTotalFormatter(Locale locale) {
+        return totalFormatters.computeIfAbsent(locale,
+                key -> new TotalFormatter(key, Arrays.stream(jobTotalCents).filter(total -> total >= 0).toArray()));
+    }
+
+    /**
+     * Looks up the total charge in cents for a job of whole hours. See
+     * {@link CalculatorService#calculateJobTotalCents(int, int, int)}. The table holds no total for a job
+     * {@link JobValidator} rejects, which is then reported with the validator's reason.
+     */
+    public int jobTotalCents(int startHour, int bedHour, int endHour) {
+        int totalCents = ((startHour | bedHour | endHour) & ~BATCH_HOUR_MASK) == 0
+                ? batchTotalCents[batchTableIndex(startHour, bedHour, endHour)] : -1;
+        if (totalCents < 0) {
+            throw invalidJob(JobValidator.validate(startHour, bedHour, endHour));
+        }
+        return totalCents;
+    }
+
+    /**
+     * Finds the latest whole hour end time of a job that costs no more than the budget. See
+     * {@link CalculatorService#findLatestEndHour(int, int, int)}.
+     * <p>
+     * For a given start and bedtime the totals of the job table rise with the end time, as no rate is negative, so
+     * the row of end times is binary searched instead of calculating each candidate.
+     */
+    public int latestEndHour(int startHour, int bedHour, int budgetCents) {
+        /*
+         * Ending at the start hour leaves only the start and bedtime to be checked.
+         */
+        JobValidation validation = JobValidator.validate(startHour, bedHour, startHour);
+        if (!validation.isValid()) {
+            throw invalidJob(validation);
+        }
+        int start = TimeUtilities.adjustHour(startHour);
+        int bed = TimeUtilities.adjustHour(bedHour);
+        if (budgetCents < 0) {
+            throw new IllegalArgumentException("Budget must not be negative.");
+        }
+        int row = tableIndex(start, bed, 0);
+        int low = start;
+        int high = WINDOW_SLOTS - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (jobTotalCents[row + middle] <= budgetCents) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        if (low == start) {
+            return -1;
+        }
+        return (low + TimeUtilities.START_TIME_MINIMUM.getHour()) % 24;
+    }
+
+    /**
+     * Fills in the totals in cents of a range of jobs of whole hours and sums them. See
+     * {@link CalculatorService#calculateJobTotals(int[], int[], int[])}.
+     * <p>
+     * The range is calculated by a loop without branches, divisions or exceptions, indexing a table by the bits of
+     * the unadjusted hours. Invalid jobs are only flagged in that loop, and if there are any the range is calculated
+     * again one job at a time to report the first of them.
+     *
+     * @return the sum of the totals in cents of the range.
+     * @throws IllegalArgumentException if a job is invalid, see {@link #jobTotalCents(int, int, int)}.
+     */
+    long jobTotalsCents(int[] startHours, int[] bedHours, int[] endHours, int[] totalsCents, int from, int to) {
+        if (BATCH_KERNEL) {
+            long sumCents = batchJobTotalsCents(startHours, bedHours, endHours, totalsCents, from, to);
+            if (sumCents >= 0) {
+                return sumCents;
+            }
+        }
+        return lookUpJobTotalsCents(startHours, bedHours, endHours, totalsCents, from, to);
+    }
+
+    /**
+     * Calculates the total charge in cents for a job to the minute. See
+     * {@link CalculatorService#calculateMinuteJobTotalCents(int, int, int, int, RoundingMode)}.
+     */
+    public int minuteJobTotalCents(int startMinute, int bedMinute, int endMinute, int incrementMinutes,
+                                   RoundingMode rounding) {
+        JobValidation validation = JobValidator.validateMinutes(startMinute, bedMinute, endMinute);
+        if (!validation.isValid()) {
+            throw invalidJob(validation);
+        }
+        int start = TimeUtilities.adjustMinute(startMinute);
+        int bed = TimeUtilities.adjustMinute(bedMinute);
+        int end = TimeUtilities.adjustMinute(endMinute);
+        if (incrementMinutes <= 0) {
+            throw new IllegalArgumentException("Billing increment must be positive.");
+        }
+        end = Math.min(start + roundToIncrement(end - start, incrementMinutes, rounding), WINDOW_MINUTES);
+        return payCents(start, bed, end);
+    }
+
+    /**
+     * Splits a job of whole hours into its three bands, until bedtime, bedtime until midnight and midnight until
+     * the end time, and fills in the hours and pay of each band. The pay of the bands adds up to
+     * {@link #jobTotalCents(int, int, int)}.
+     *
+     * @param startHour the start hour of the day (0-23).
+     * @param bedHour the bedtime hour of the day (0-23).
+     * @param endHour the end hour of the day (0-23).
+     * @param hours the array of at least {@link #BANDS} elements to fill with the hours of each band.
+     * @param cents the array of at least {@link #BANDS} elements to fill with the pay in cents of each band.
+     * @throws IllegalArgumentException if the job is invalid, see {@link #jobTotalCents(int, int, int)}.
+     */
+    public void splitIntoBands(int startHour, int bedHour, int endHour, int[] hours, int[] cents) {
+        jobTotalCents(startHour, bedHour, endHour);
+        int start = TimeUtilities.adjustHour(startHour) * 60;
+        int end = TimeUtilities.adjustHour(endHour) * 60;
+        int bed = Math.min(Math.max(TimeUtilities.adjustHour(bedHour) * 60, start), end);
+        int midnight = Math.min(Math.max(MIDNIGHT_MINUTE, start), end);
+
+        hours[BAND_UNTIL_BEDTIME] = (bed - start) / 60;
+        hours[BAND_BEDTIME_UNTIL_MIDNIGHT] = (midnight - bed) / 60;
+        hours[BAND_MIDNIGHT_UNTIL_END] = (end - midnight) / 60;
+        cents[BAND_UNTIL_BEDTIME] = (awakePay[bed] - awakePay[start]) / 60;
+        cents[BAND_BEDTIME_UNTIL_MIDNIGHT] = (asleepPay[midnight] - asleepPay[bed]) / 60;
+        cents[BAND_MIDNIGHT_UNTIL_END] = (asleepPay[end] - asleepPay[midnight]) / 60;
+    }
+
+    /**
+     * Reads the pay for adjusted window minutes from the cumulative pay tables.
+     *
+     * @param start the adjusted start minute.
+     * @param bed the adjusted bedtime minute.
+     * @param end the adjusted end minute, not before the start minute.
+     * @return the pay in cents, fractions of a cent rounded half up.
+     */
+    int payCents(int start, int bed, int end) {
+        /*
+         * Bedtime only splits the shift when it falls within it, the rest of the shift is all awake or all asleep.
+         */
+        bed = Math.min(Math.max(bed, start), end);
+
+        int pay = awakePay[bed] - awakePay[start] + asleepPay[end] - asleepPay[bed];
+        return (pay + 30) / 60;
+    }
+
+    /**
+     * The branch-free kernel of {@link #jobTotalsCents(int[], int[], int[], int[], int, int)}. Hours outside of
+     * 0-31 are masked to stay within the table and flagged, hours 24-31 find -1 in it.
+     *
+     * @return the sum of the totals in cents of the range if every job in it is valid, otherwise -1 and the totals
+     * are not meaningful.
+     */
+    private long batchJobTotalsCents(int[] startHours, int[] bedHours, int[] endHours, int[] totalsCents,
+                                     int from, int to) {
+        int[] table = batchTotalCents;
+        int invalid = 0;
+        long sumCents = 0;
+        for (int i = from; i < to; i++) {
+            int startHour = startHours[i];
+            int bedHour = bedHours[i];
+            int endHour = endHours[i];
+            int totalCents = table[batchTableIndex(startHour & BATCH_HOUR_MASK, bedHour & BATCH_HOUR_MASK,
+                    endHour & BATCH_HOUR_MASK)];
+            invalid |= (totalCents >> 31) | ((startHour | bedHour | endHour) & ~BATCH_HOUR_MASK);
+            totalsCents[i] = totalCents;
+            sumCents += totalCents;
+        }
+        return invalid != 0 ? -1 : sumCents;
+    }
+
+    private long lookUpJobTotalsCents(int[] startHours, int[] bedHours, int[] endHours, int[] totalsCents,
+                                      int from, int to) {
+        long sumCents = 0;
+        for (int i = from; i < to; i++) {
+            try {
+                totalsCents[i] = jobTotalCents(startHours[i], bedHours[i], endHours[i]);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Job " + i + ": " + e.getMessage(), e);
+            }
+            sumCents += totalsCents[i];
+        }
+        return sumCents;
+    }
+
+    private static RateBand parseBand(String value) {
+        String[] fields = value.split(",");
+        if (fields.length != 4) {
+            throw new IllegalArgumentException("Rate band '" + value + "' must have a start time, end time, "
+                    + "awake rate and asleep rate.");
+        }
+        try {
+            return new RateBand(TimeUtilities.toLocalTime(TimeUtilities.parseTime(fields[0].trim())),
+                    TimeUtilities.toLocalTime(TimeUtilities.parseTime(fields[1].trim())),
+                    toCents(fields[2]), toCents(fields[3]));
+        } catch (DateTimeParseException | ArithmeticException | NumberFormatException e) {
+            throw new IllegalArgumentException("Rate band '" + value + "' is invalid: " + e.getMessage(), e);
+        }
+    }
+
+    private static int toCents(String dollars) {
+        return new BigDecimal(dollars.trim()).movePointRight(2).intValueExact();
+    }
+
+    private static int[] cumulativePay(int[] rates) {
+        int[] pay = new int[rates.length + 1];
+        for (int minute = 0; minute < rates.length; minute++) {
+            pay[minute + 1] = pay[minute] + rates[minute];
+        }
+        return pay;
+    }
+
+    /**
+     * Builds the table of totals in cents for every whole hour combination in the babysitting window.
+     * Combinations where the start time is after the end time are marked with -1.
+     *
+     * @return the table of totals indexed by {@link #tableIndex(int, int, int)}.
+     */
+    private int[] buildJobTotalTable() {
+        int[] table = new int[WINDOW_SLOTS * BEDTIME_SLOTS * WINDOW_SLOTS];
+        for (int start = 0; start < WINDOW_SLOTS; start++) {
+            for (int bed = 0; bed < BEDTIME_SLOTS; bed++) {
+                for (int end = 0; end < WINDOW_SLOTS; end++) {
+                    table[tableIndex(start, bed, end)] = start > end ? -1 : payCents(start * 60, bed * 60, end * 60);
+                }
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Builds the table of totals in cents indexed by {@link #batchTableIndex(int, int, int)}, with -1 for every
+     * combination that {@link JobValidator} rejects.
+     */
+    private int[] buildBatchTotalTable() {
+        int[] table = new int[1 << (3 * BATCH_HOUR_BITS)];
+        Arrays.fill(table, -1);
+        for (int startHour = 0; startHour < 24; startHour++) {
+            for (int bedHour = 0; bedHour < 24; bedHour++) {
+                for (int endHour = 0; endHour < 24; endHour++) {
+                    if (JobValidator.isValid(startHour, bedHour, endHour)) {
+                        table[batchTableIndex(startHour, bedHour, endHour)] = jobTotalCents[tableIndex(
+                                TimeUtilities.adjustHour(startHour), TimeUtilities.adjustHour(bedHour),
+                                TimeUtilities.adjustHour(endHour))];
+                    }
+                }
+            }
+        }
+        return table;
+    }
+
+    private static int batchTableIndex(int startHour, int bedHour, int endHour) {
+        return (((startHour << BATCH_HOUR_BITS) | bedHour) << BATCH_HOUR_BITS) | endHour;
+    }
+
+    private static int tableIndex(int startSlot, int bedSlot, int endSlot) {
+        return (startSlot * BEDTIME_SLOTS + bedSlot) * WINDOW_SLOTS + endSlot;
+    }
+
+    /**
+     * @return the exception reporting the reason {@link JobValidator} rejected a job.
+     */
+    private static IllegalArgumentException invalidJob(JobValidation validation) {
+        return new IllegalArgumentException(validation.getMessage());
+    }
+
+    /**
+     * Rounds a number of minutes to a whole number of increments.
+     *
+     * @param minutes the minutes to round, never negative.
+     * @param increment the increment in minutes.
+     * @param rounding the {@link RoundingMode} to apply.
+     * @return the rounded minutes.
+     */
+    private static int roundToIncrement(int minutes, int increment, RoundingMode rounding) {
+        int whole = minutes / increment;
+        int remainder = minutes % increment;
+        if (remainder == 0) {
+            return minutes;
+        }
+        switch (rounding) {
+            case FLOOR:
+            case DOWN:
+                break;
+            case CEILING:
+            case UP:
+                whole++;
+                break;
+            case HALF_UP:
+                whole += remainder * 2 >= increment ? 1 : 0;
+                break;
+            case HALF_DOWN:
+                whole += remainder * 2 > increment ? 1 : 0;
+                break;
+            case HALF_EVEN:
+                whole += remainder * 2 > increment || (remainder * 2 == increment && whole % 2 == 1) ? 1 : 0;
+                break;
+            default:
+                throw new ArithmeticException("Billed time is not a whole number of increments.");
+        }
+        return whole * increment;
+    }
+}
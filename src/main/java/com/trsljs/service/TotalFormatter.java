@@ -0,0 +1,83 @@
+package com.trsljs.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.NumberFormat;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Immutable, thread-safe formatter of totals in the currency of a locale. Every total a {@link RateSchedule} can
+ * produce for a job of whole hours is rendered once with {@link NumberFormat#getCurrencyInstance(Locale)} when the
+ * formatter is created, so formatting one of them only hands out the stored text. Any other total is formatted by
+ * a copy of the {@link NumberFormat}, giving exactly the same text.
+ *
+ * @author <a href="mailto:timothyrocksmith@gmail.com">Tim Smith</a>
+ */
+public class TotalFormatter {
+    private final Locale locale;
+    private final NumberFormat format;
+    /*
+     * The distinct reachable totals in cents in ascending order, and the rendered text and its UTF-8 bytes of each at
+     * the same index, so the tables grow with the number of totals rather than with the largest one.
+     */
+    private final int[] totalsCents;
+    private final String[] texts;
+    private final byte[][] bytes;
+
+    TotalFormatter(Locale locale, int[] reachableTotalsCents) {
+        this.locale = locale;
+        this.format = NumberFormat.getCurrencyInstance(locale);
+        this.totalsCents = Arrays.stream(reachableTotalsCents).distinct().sorted().toArray();
+        this.texts = new String[totalsCents.length];
+        this.bytes = new byte[totalsCents.length][];
+        for (int i = 0; i < totalsCents.length; i++) {
+            texts[i] = format.format(totalsCents[i] / 100.0);
+            bytes[i] = texts[i].getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    public Locale getLocale() {
+        return locale;
+    }
+
+    /**
+     * @param totalCents the total in cents.
+     * @return the total formatted as by {@link NumberFormat#getCurrencyInstance(Locale)} of the locale.
+     */
+    public String format(int totalCents) {
+        int index = Arrays.binarySearch(totalsCents, totalCents);
+        if (index >= 0) {
+            return texts[index];
+        }
+        return ((NumberFormat) format.clone()).format(totalCents / 100.0);
+    }
+
+    /**
+     * Appends the formatted total, see {@link #format(int)}.
+     *
+     * @param totalCents the total in cents.
+     * @param out the {@link Appendable} to append to.
+     * @throws IOException if the {@link Appendable} fails.
+     */
+    public void formatTo(int totalCents, Appendable out) throws IOException {
+        out.append(format(totalCents));
+    }
+
+    /**
+     * Puts the UTF-8 encoded bytes of the formatted total, see {@link #format(int)}, at the position of the buffer.
+     *
+     * @param totalCents the total in cents.
+     * @param out the {@link ByteBuffer} to put the bytes in.
+     * @throws java.nio.BufferOverflowException if the buffer does not have room for the bytes.
+     */
+    public void formatTo(int totalCents, ByteBuffer out) {
+        int index = Arrays.binarySearch(totalsCents, totalCents);
+        if (index >= 0) {
+            out.put(bytes[index]);
+        } else {
+            out.put(format(totalCents).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
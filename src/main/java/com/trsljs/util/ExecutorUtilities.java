@@ -0,0 +1,32 @@
+package com.trsljs.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Utility Class providing static methods to create {@link ExecutorService}s. The code is compiled for Java 11, so
+ * virtual threads are looked up when the JVM runs rather than called directly.
+ *
+ * @author <a href="mailto:timothyrocksmith@gmail.com">Tim Smith</a>
+ */
+public class ExecutorUtilities {
+
+    private ExecutorUtilities() {
+    }
+
+    /**
+     * Creates an executor running each task on a new virtual thread.
+     *
+     * @return the {@link ExecutorService}.
+     * @throws UnsupportedOperationException if the JVM does not provide virtual threads.
+     */
+    public static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method virtualThreads = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) virtualThreads.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("Virtual threads are not available in this JVM.", e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.trsljs.util;
+
+/**
+ * The outcome of validating a job with {@link JobValidator}: valid, or the first reason the job is rejected. The
+ * {@link #getCode() code} is stable so it can be stored in bulk, e.g. one byte per row.
+ *
+ * @author <a href="mailto:timothyrocksmith@gmail.com">Tim Smith</a>
+ */
+public enum JobValidation {
+    VALID(null),
+    START_OUTSIDE_WINDOW("Start time is outside of the allowed hours."),
+    BEDTIME_OUTSIDE_WINDOW("Bedtime is outside of the allowed hours."),
+    END_OUTSIDE_WINDOW("End time is outside of the allowed hours."),
+    START_AFTER_END("Start Time must be before End Time."),
+    PARTIAL_HOUR("Times must be on the hour.");
+
+    private static final JobValidation[] BY_CODE = values();
+
+    private final String message;
+
+    JobValidation(String message) {
+        this.message = message;
+    }
+
+    /**
+     * @param code the code returned by {@link #getCode()}.
+     * @return the {@link JobValidation} with the code.
+     * @throws ArrayIndexOutOfBoundsException if there is no such code.
+     */
+    public static JobValidation ofCode(int code) {
+        return BY_CODE[code];
+    }
+
+    public int getCode() {
+        return ordinal();
+    }
+
+    public boolean isValid() {
+        return this == VALID;
+    }
+
+    /**
+     * @return the message shown for a rejected job, or null if the job is valid.
+     */
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,213 @@
+package com.trsljs.util;
+
+import com.trsljs.metrics.CalculatorMetrics;
+
+import java.time.LocalTime;
+
+/**
+ * The rules for a valid job, in one place for the GUI, batch jobs and the server.
+ * <p>
+ * A job is valid if its start and end are within the window from {@link TimeUtilities#START_TIME_MINIMUM} to
+ * {@link TimeUtilities#END_TIME_MAXIMUM}, its bedtime is within the window no later than midnight, and it does not
+ * start after it ends. Every combination of hours of the day is classified once, in a table indexed by the raw hours
+ * five bits each, so classifying a job is a single lookup, and a bitmap of the valid combinations answers
+ * {@link #isValid(int, int, int)} from a few kilobytes. When a job is rejected for more than one reason, the first
+ * reason in the order start, bedtime, end, start after end is given.
+ * <p>
+ * Validating one job is recorded as {@link CalculatorMetrics#VALIDATE_JOB}, counting a rejected job as an error;
+ * {@link #isValid(int, int, int)} and the validation of a range of jobs are not recorded.
+ *
+ * @author <a href="mailto:timothyrocksmith@gmail.com">Tim Smith</a>
+ */
+public class JobValidator {
+    private static final int HOUR_BITS = 5;
+    private static final int HOUR_MASK = (1 << HOUR_BITS) - 1;
+    private static final int DOMAIN_SIZE = 1 << (3 * HOUR_BITS);
+
+    private static final int WINDOW_SLOTS = TimeUtilities.ADJUSTED_END_TIME_MAXIMUM.getHour() + 1;
+    private static final int BEDTIME_SLOTS = TimeUtilities.VALID_BEDTIMES.size();
+    private static final int WINDOW_MINUTES = (WINDOW_SLOTS - 1) * 60;
+    private static final int MIDNIGHT_MINUTE = (BEDTIME_SLOTS - 1) * 60;
+
+    private static final byte[] CODES = new byte[DOMAIN_SIZE];
+    private static final long[] VALID_BITS = new long[DOMAIN_SIZE / Long.SIZE];
+
+    static {
+        for (int start = 0; start <= HOUR_MASK; start++) {
+            for (int bed = 0; bed <= HOUR_MASK; bed++) {
+                for (int end = 0; end <= HOUR_MASK; end++) {
+                    int index = index(start, bed, end);
+                    JobValidation validation = classify(start, bed, end);
+                    CODES[index] = (byte) validation.getCode();
+                    if (validation.isValid()) {
+                        VALID_BITS[index >>> 6] |= 1L << index;
+                    }
+                }
+            }
+        }
+    }
+
+    private JobValidator() {
+    }
+
+    /**
+     * Validates a job of whole hours.
+     *
+     * @param startHour the hour of the day the job starts.
+     * @param bedHour the hour of the day of bedtime.
+     * @param endHour the hour of the day the job ends.
+     * @return the {@link JobValidation} of the job.
+     */
+    public static JobValidation validate(int startHour, int bedHour, int endHour) {
+        long startNanos = CalculatorMetrics.ENABLED ? System.nanoTime() : 0L;
+        return recorded(startNanos,
+                JobValidation.ofCode(CODES[index(toBits(startHour), toBits(bedHour), toBits(endHour))]));
+    }
+
+    /**
+     * @return true iff the job of whole hours is valid, see {@link #validate(int, int, int)}.
+     */
+    public static boolean isValid(int startHour, int bedHour, int endHour) {
+        int index = index(toBits(startHour), toBits(bedHour), toBits(endHour));
+        return (VALID_BITS[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Validates a job given in minutes of the day, as parsed by {@link TimeUtilities#tryParseTime(CharSequence)},
+     * by the same rules to the minute: a start or end past {@link TimeUtilities#END_TIME_MAXIMUM} or a bedtime past
+     * midnight is outside the window even though its hour is not. Whole hours get the same answer as
+     * {@link #validate(int, int, int)}.
+     *
+     * @param startMinute the minute of the day the job starts.
+     * @param bedMinute the minute of the day of bedtime.
+     * @param endMinute the minute of the day the job ends.
+     * @return the {@link JobValidation} of the job.
+     */
+    public static JobValidation validateMinutes(int startMinute, int bedMinute, int endMinute) {
+        long startNanos = CalculatorMetrics.ENABLED ? System.nanoTime() : 0L;
+        return recorded(startNanos, classifyMinutes(startMinute, bedMinute, endMinute));
+    }
+
+    /**
+     * Validates a job given in minutes of the day for a caller that bills whole hours: the job must be valid by
+     * {@link #validateMinutes(int, int, int)} and every time must be on the hour, so that no part of an hour is
+     * silently dropped. Parts of an hour are billed by
+     * {@link com.trsljs.service.CalculatorService#calculateMinuteJobTotalCents}.
+     *
+     * @param startMinute the minute of the day the job starts.
+     * @param bedMinute the minute of the day of bedtime.
+     * @param endMinute the minute of the day the job ends.
+     * @return the {@link JobValidation} of the job, {@link JobValidation#PARTIAL_HOUR} if it is otherwise valid but
+     * a time is not on the hour.
+     */
+    public static JobValidation validateWholeHours(int startMinute, int bedMinute, int endMinute) {
+        long startNanos = CalculatorMetrics.ENABLED ? System.nanoTime() : 0L;
+        JobValidation validation = classifyMinutes(startMinute, bedMinute, endMinute);
+        if (validation.isValid() && (startMinute % 60 != 0 || bedMinute % 60 != 0 || endMinute % 60 != 0)) {
+            validation = JobValidation.PARTIAL_HOUR;
+        }
+        return recorded(startNanos, validation);
+    }
+
+    /**
+     * Validates a job as selected in the GUI, where the bedtime may not have been chosen yet.
+     *
+     * @param startTime the {@link LocalTime} the job starts.
+     * @param bedtime the {@link LocalTime} of bedtime, or null to validate only the start and end.
+     * @param endTime the {@link LocalTime} the job ends.
+     * @return the {@link JobValidation} of the job.
+     */
+    public static JobValidation validate(LocalTime startTime, LocalTime bedtime, LocalTime endTime) {
+        long startNanos = CalculatorMetrics.ENABLED ? System.nanoTime() : 0L;
+        LocalTime bed = bedtime == null ? TimeUtilities.START_TIME_MINIMUM : bedtime;
+        return recorded(startNanos, classifyMinutes(startTime.getHour() * 60 + startTime.getMinute(),
+                bed.getHour() * 60 + bed.getMinute(), endTime.getHour() * 60 + endTime.getMinute()));
+    }
+
+    /**
+     * Validates the jobs of whole hours in a range of the arrays, writing the code of each
+     * {@link JobValidation} to the matching element of {@code codes}.
+     *
+     * @param startHours the hour of the day each job starts.
+     * @param bedHours the hour of the day of each bedtime.
+     * @param endHours the hour of the day each job ends.
+     * @param codes receives the {@link JobValidation#getCode() code} of each job.
+     * @param from the first index to validate.
+     * @param to the index after the last to validate.
+     * @return the number of valid jobs in the range.
+     */
+    public static int validate(int[] startHours, int[] bedHours, int[] endHours, byte[] codes, int from, int to) {
+        int valid = 0;
+        for (int i = from; i < to; i++) {
+            byte code = CODES[index(toBits(startHours[i]), toBits(bedHours[i]), toBits(endHours[i]))];
+            codes[i] = code;
+            valid += code == 0 ? 1 : 0;
+        }
+        return valid;
+    }
+
+    /**
+     * Classifies one combination of hours by the rules, used to build the table.
+     */
+    private static JobValidation classify(int startHour, int bedHour, int endHour) {
+        int start = toSlot(startHour, WINDOW_SLOTS);
+        int bed = toSlot(bedHour, BEDTIME_SLOTS);
+        int end = toSlot(endHour, WINDOW_SLOTS);
+        if (start < 0) {
+            return JobValidation.START_OUTSIDE_WINDOW;
+        }
+        if (bed < 0) {
+            return JobValidation.BEDTIME_OUTSIDE_WINDOW;
+        }
+        if (end < 0) {
+            return JobValidation.END_OUTSIDE_WINDOW;
+        }
+        return start > end ? JobValidation.START_AFTER_END : JobValidation.VALID;
+    }
+
+    /**
+     * Classifies a job given in minutes of the day, see {@link #validateMinutes(int, int, int)}.
+     */
+    private static JobValidation classifyMinutes(int startMinute, int bedMinute, int endMinute) {
+        int start = TimeUtilities.adjustMinute(startMinute);
+        int bed = TimeUtilities.adjustMinute(bedMinute);
+        int end = TimeUtilities.adjustMinute(endMinute);
+        if (start < 0 || start > WINDOW_MINUTES) {
+            return JobValidation.START_OUTSIDE_WINDOW;
+        }
+        if (bed < 0 || bed > MIDNIGHT_MINUTE) {
+            return JobValidation.BEDTIME_OUTSIDE_WINDOW;
+        }
+        if (end < 0 || end > WINDOW_MINUTES) {
+            return JobValidation.END_OUTSIDE_WINDOW;
+        }
+        return start > end ? JobValidation.START_AFTER_END : JobValidation.VALID;
+    }
+
+    /**
+     * Records a call that started at {@code startNanos} as {@link CalculatorMetrics#VALIDATE_JOB} if metrics are
+     * enabled, as an error if the job was rejected.
+     */
+    private static JobValidation recorded(long startNanos, JobValidation validation) {
+        if (CalculatorMetrics.ENABLED) {
+            CalculatorMetrics.VALIDATE_JOB.record(startNanos, !validation.isValid());
+        }
+        return validation;
+    }
+
+    private static int toSlot(int hour, int slots) {
+        int slot = TimeUtilities.adjustHour(hour);
+        return slot < slots ? slot : -1;
+    }
+
+    /**
+     * Maps any hour outside the table to 31, which is not an hour of the day and is rejected like one.
+     */
+    private static int toBits(int hour) {
+        return (hour & ~HOUR_MASK) == 0 ? hour : HOUR_MASK;
+    }
+
+    private static int index(int startBits, int bedBits, int endBits) {
+        return (((startBits << HOUR_BITS) | bedBits) << HOUR_BITS) | endBits;
+    }
+}
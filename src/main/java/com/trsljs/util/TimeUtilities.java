@@ -1,7 +1,12 @@
 package com.trsljs.util;
 
+import java.nio.ByteBuffer;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Vector;
 
 /**
@@ -18,6 +23,20 @@ public class TimeUtilities {
     public static final LocalTime ADJUSTED_MIDNIGHT = LocalTime.MIDNIGHT.minusHours(TIME_ADJUSTMENT);
     public static final LocalTime ADJUSTED_END_TIME_MAXIMUM = adjustTimePeriod(END_TIME_MAXIMUM);
 
+    private static final String AM_MARKER = LocalTime.MIDNIGHT.format(DateTimeFormatter.ofPattern("a"));
+    private static final String PM_MARKER = LocalTime.NOON.format(DateTimeFormatter.ofPattern("a"));
+    private static final int MARKER_INDEX = 6;
+
+    /*
+     * The selectable times, in order, built once without any formatting or parsing.
+     */
+    public static final List<LocalTime> VALID_START_TIMES =
+            hourlyTimes(START_TIME_MINIMUM, ADJUSTED_END_TIME_MAXIMUM.getHour());
+    public static final List<LocalTime> VALID_BEDTIMES =
+            hourlyTimes(START_TIME_MINIMUM, 24 - START_TIME_MINIMUM.getHour() + 1);
+    public static final List<LocalTime> VALID_END_TIMES =
+            hourlyTimes(START_TIME_MINIMUM.plusHours(1L), ADJUSTED_END_TIME_MAXIMUM.getHour());
+
 
 
     /**
@@ -33,6 +52,34 @@ public class TimeUtilities {
         return time.minusHours(TIME_ADJUSTMENT);
     }
 
+    /**
+     * Adjust an hour of the day the same way as {@link #adjustTimePeriod(LocalTime)} without creating a
+     * {@link LocalTime}.
+     *
+     * @param hour the hour of the day (0-23) to adjust
+     * @return the adjusted hour (0-23), or -1 if the hour is not a valid hour of the day.
+     */
+    public static int adjustHour(int hour) {
+        if (hour < 0 || hour > 23) {
+            return -1;
+        }
+        return (hour + 24 - TIME_ADJUSTMENT) % 24;
+    }
+
+    /**
+     * Adjust a minute of the day the same way as {@link #adjustTimePeriod(LocalTime)} without creating a
+     * {@link LocalTime}.
+     *
+     * @param minuteOfDay the minute of the day (0-1439) to adjust
+     * @return the adjusted minute of the day (0-1439), or -1 if the minute is not a valid minute of the day.
+     */
+    public static int adjustMinute(int minuteOfDay) {
+        if (minuteOfDay < 0 || minuteOfDay >= 24 * 60) {
+            return -1;
+        }
+        return (minuteOfDay + (24 - TIME_ADJUSTMENT) * 60) % (24 * 60);
+    }
+
     /**
      * Generates a {@link Vector<String>} of time values starting with the minimum start time required in increments of
      * whole hours minus 1 hour from the maximum end time to populate the start time combobox.
@@ -42,10 +89,8 @@ public class TimeUtilities {
     public static Vector<String> getValidStartTimes() {
         Vector<String> times = new Vector<>();
         times.add("");
-        LocalTime startTime = START_TIME_MINIMUM;
-        for (int i = 0; i < ADJUSTED_END_TIME_MAXIMUM.getHour(); i++) {
-            times.add(startTime.format(TIME_FORMATTER));
-            startTime = startTime.plusHours(1L);
+        for (LocalTime time : VALID_START_TIMES) {
+            times.add(formatTime(time.getHour() * 60 + time.getMinute()));
         }
         return times;
     }
@@ -59,10 +104,8 @@ public class TimeUtilities {
     public static Vector<String> getValidBedtimes() {
         Vector<String> times = new Vector<>();
         times.add("");
-        LocalTime startTime = START_TIME_MINIMUM;
-        for (int i = 0; i <= 24 - START_TIME_MINIMUM.getHour(); i++) {
-            times.add(startTime.format(TIME_FORMATTER));
-            startTime = startTime.plusHours(1L);
+        for (LocalTime time : VALID_BEDTIMES) {
+            times.add(formatTime(time.getHour() * 60 + time.getMinute()));
         }
         return times;
     }
@@ -76,11 +119,193 @@ public class TimeUtilities {
     public static Vector<String> getValidEndTimes() {
         Vector<String> times = new Vector<>();
         times.add("");
-        LocalTime startTime = START_TIME_MINIMUM.plusHours(1L);
-        for (int i = 0; i < ADJUSTED_END_TIME_MAXIMUM.getHour(); i++) {
-            times.add(startTime.format(TIME_FORMATTER));
-            startTime = startTime.plusHours(1L);
+        for (LocalTime time : VALID_END_TIMES) {
+            times.add(formatTime(time.getHour() * 60 + time.getMinute()));
         }
         return times;
     }
+
+    /**
+     * Parses a time in the {@link #TIME_FORMATTER} format into the minute of the day without creating any objects.
+     * The same text is accepted as by {@code LocalTime.parse(text, TIME_FORMATTER)}.
+     *
+     * @param text the {@link CharSequence} to parse, e.g. "05:00 PM".
+     * @return the minute of the day (0-1439), see {@link #hourOf(int)} and {@link #minuteOf(int)}.
+     * @throws DateTimeParseException if the text is not a valid time.
+     */
+    public static int parseTime(CharSequence text) {
+        int result = tryParseTime(text);
+        if (result < 0) {
+            int errorIndex = -1 - result;
+            throw new DateTimeParseException("Text '" + text + "' could not be parsed at index " + errorIndex,
+                    text, errorIndex);
+        }
+        return result;
+    }
+
+    /**
+     * Parses a time in the {@link #TIME_FORMATTER} format into the minute of the day without creating any objects.
+     *
+     * @param text the {@link CharSequence} to parse, e.g. "05:00 PM".
+     * @return the minute of the day (0-1439), or a negative value {@code -1 - errorIndex} if the text is not a
+     * valid time.
+     */
+    public static int tryParseTime(CharSequence text) {
+        int length = text.length();
+        if (length < MARKER_INDEX) {
+            return -1 - length;
+        }
+        int result = parseClockTime(text.charAt(0), text.charAt(1), text.charAt(2), text.charAt(3),
+                text.charAt(4), text.charAt(5));
+        if (result < 0) {
+            return result;
+        }
+        if (matchesMarker(text, length, AM_MARKER)) {
+            return result;
+        }
+        if (matchesMarker(text, length, PM_MARKER)) {
+            return result + 12 * 60;
+        }
+        return -1 - MARKER_INDEX;
+    }
+
+    /**
+     * Parses US-ASCII encoded bytes of a time in the {@link #TIME_FORMATTER} format into the minute of the day
+     * without creating any objects. The position and limit of the buffer are not changed.
+     *
+     * @param buffer the {@link ByteBuffer} holding the text.
+     * @param offset the index of the first byte of the time in the buffer.
+     * @param length the number of bytes of the time.
+     * @return the minute of the day (0-1439), or a negative value {@code -1 - errorIndex} if the bytes are not a
+     * valid time.
+     */
+    public static int tryParseTime(ByteBuffer buffer, int offset, int length) {
+        if (length < MARKER_INDEX) {
+            return -1 - length;
+        }
+        int result = parseClockTime((char) buffer.get(offset), (char) buffer.get(offset + 1),
+                (char) buffer.get(offset + 2), (char) buffer.get(offset + 3), (char) buffer.get(offset + 4),
+                (char) buffer.get(offset + 5));
+        if (result < 0) {
+            return result;
+        }
+        if (matchesMarker(buffer, offset, length, AM_MARKER)) {
+            return result;
+        }
+        if (matchesMarker(buffer, offset, length, PM_MARKER)) {
+            return result + 12 * 60;
+        }
+        return -1 - MARKER_INDEX;
+    }
+
+    /**
+     * @param minuteOfDay the minute of the day returned by {@link #parseTime(CharSequence)}.
+     * @return the hour of the day (0-23).
+     */
+    public static int hourOf(int minuteOfDay) {
+        return minuteOfDay / 60;
+    }
+
+    /**
+     * @param minuteOfDay the minute of the day returned by {@link #parseTime(CharSequence)}.
+     * @return the minute of the hour (0-59).
+     */
+    public static int minuteOf(int minuteOfDay) {
+        return minuteOfDay % 60;
+    }
+
+    /**
+     * Formats a minute of the day the same as {@link #TIME_FORMATTER} without going through the formatter.
+     *
+     * @param minuteOfDay the minute of the day (0-1439).
+     * @return the formatted time, e.g. "05:00 PM".
+     */
+    public static String formatTime(int minuteOfDay) {
+        int hour = hourOf(minuteOfDay) % 12 == 0 ? 12 : hourOf(minuteOfDay) % 12;
+        int minute = minuteOf(minuteOfDay);
+        char[] text = {(char) ('0' + hour / 10), (char) ('0' + hour % 10), ':', (char) ('0' + minute / 10),
+                (char) ('0' + minute % 10), ' '};
+        return new String(text) + (minuteOfDay < 12 * 60 ? AM_MARKER : PM_MARKER);
+    }
+
+    /**
+     * @param minuteOfDay the minute of the day returned by {@link #parseTime(CharSequence)}.
+     * @return the {@link LocalTime} of the minute of the day.
+     */
+    public static LocalTime toLocalTime(int minuteOfDay) {
+        return LocalTime.of(hourOf(minuteOfDay), minuteOf(minuteOfDay));
+    }
+
+    private static List<LocalTime> hourlyTimes(LocalTime first, int count) {
+        List<LocalTime> times = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            times.add(first.plusHours(i));
+        }
+        return Collections.unmodifiableList(times);
+    }
+
+    /**
+     * Parses the "hh:mm " part of a time. As with the {@link #TIME_FORMATTER} default resolver, an hour of 00 is
+     * accepted and treated the same as 12.
+     *
+     * @return the minute of the half day (0-719), or a negative value {@code -1 - errorIndex}.
+     */
+    private static int parseClockTime(char hourTens, char hourOnes, char colon, char minuteTens, char minuteOnes,
+                                      char space) {
+        if (!isDigit(hourTens)) {
+            return -1;
+        }
+        if (!isDigit(hourOnes)) {
+            return -2;
+        }
+        if (colon != ':') {
+            return -3;
+        }
+        if (!isDigit(minuteTens)) {
+            return -4;
+        }
+        if (!isDigit(minuteOnes)) {
+            return -5;
+        }
+        if (space != ' ') {
+            return -6;
+        }
+        int hour = (hourTens - '0') * 10 + (hourOnes - '0');
+        int minute = (minuteTens - '0') * 10 + (minuteOnes - '0');
+        if (hour > 12) {
+            return -1;
+        }
+        if (minute > 59) {
+            return -4;
+        }
+        return (hour % 12) * 60 + minute;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean matchesMarker(CharSequence text, int length, String marker) {
+        if (length != MARKER_INDEX + marker.length()) {
+            return false;
+        }
+        for (int i = 0; i < marker.length(); i++) {
+            if (text.charAt(MARKER_INDEX + i) != marker.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matchesMarker(ByteBuffer buffer, int offset, int length, String marker) {
+        if (length != MARKER_INDEX + marker.length()) {
+            return false;
+        }
+        for (int i = 0; i < marker.length(); i++) {
+            if ((buffer.get(offset + MARKER_INDEX + i) & 0xFF) != marker.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
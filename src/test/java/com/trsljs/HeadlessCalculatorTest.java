@@ -0,0 +1,90 @@
+package com.trsljs;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class HeadlessCalculatorTest {
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+    @Test
+    public void testPrintsFormattedTotal() {
+        assertEquals(0, run("05:00 PM", "09:00 PM", "02:00 AM"));
+        assertEquals(NumberFormat.getCurrencyInstance().format(104), output(out));
+    }
+
+    @Test
+    public void testPrintsCents() {
+        assertEquals(0, run("--cents", "01:00 AM", "09:00 PM", "03:00 AM"));
+        assertEquals("3200", output(out));
+    }
+
+    @Test
+    public void testInvalidJob() {
+        assertEquals(HeadlessCalculator.EXIT_INVALID_JOB, run("02:00 AM", "09:00 PM", "11:00 PM"));
+        assertEquals("Start Time must be before End Time.", output(err));
+        assertEquals("", output(out));
+    }
+
+    @Test
+    public void testRejectsPartHours() {
+        assertEquals(HeadlessCalculator.EXIT_INVALID_JOB, run("05:30 PM", "09:00 PM", "02:15 AM"));
+        assertEquals("Times must be on the hour.", output(err));
+        assertEquals("", output(out));
+    }
+
+    @Test
+    public void testUsage() {
+        assertEquals(HeadlessCalculator.EXIT_USAGE, run("05:00 PM", "09:00 PM"));
+        assertEquals(HeadlessCalculator.EXIT_USAGE, run("--verbose", "05:00 PM", "09:00 PM", "02:00 AM"));
+        assertEquals(HeadlessCalculator.EXIT_USAGE, run("5 PM", "09:00 PM", "02:00 AM"));
+    }
+
+    @Test
+    public void testDoesNotLoadSwingOrAwt() throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-verbose:class");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(HeadlessCalculator.class.getName());
+        command.add("05:00 PM");
+        command.add("09:00 PM");
+        command.add("02:00 AM");
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+
+        List<String> uiClasses = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.contains(" javax.swing.") || line.contains(" java.awt.")) {
+                    uiClasses.add(line);
+                }
+            }
+        }
+
+        assertEquals(0, process.waitFor());
+        assertEquals(new ArrayList<String>(), uiClasses);
+    }
+
+    private int run(String... args) {
+        return HeadlessCalculator.run(args, new PrintStream(out, true), new PrintStream(err, true));
+    }
+
+    private static String output(ByteArrayOutputStream stream) {
+        return new String(stream.toByteArray(), StandardCharsets.UTF_8).trim();
+    }
+}
@@ -0,0 +1,126 @@
+package com.trsljs.batch;
+
+import com.trsljs.ledger.JobLedger;
+import com.trsljs.service.CalculatorService;
+import com.trsljs.service.RateSchedule;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BatchBillingJobTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path input;
+    private Path output;
+    private Path rejects;
+
+    @Before
+    public void createFiles() throws IOException {
+        input = folder.newFile("shifts.csv").toPath();
+        output = folder.getRoot().toPath().resolve("totals.csv");
+        rejects = folder.getRoot().toPath().resolve("totals.csv.rejects");
+    }
+
+    @Test
+    public void testRunWritesTotalsAndRejects() throws IOException {
+        Files.write(input, Arrays.asList(
+                "05:00 PM,09:00 PM,02:00 AM",
+                "02:00 AM,09:00 PM,06:00 PM",
+                "not a time,09:00 PM,02:00 AM",
+                "",
+                "10:00 PM,09:00 PM,02:00 AM"), StandardCharsets.US_ASCII);
+
+        BatchBillingJob job = new BatchBillingJob(new CalculatorService(), 40);
+        job.run(input, output, rejects);
+
+        assertEquals(Arrays.asList("05:00 PM,09:00 PM,02:00 AM,104.00", "10:00 PM,09:00 PM,02:00 AM,48.00"),
+                Files.readAllLines(output, StandardCharsets.US_ASCII));
+        List<String> rejected = Files.readAllLines(rejects, StandardCharsets.US_ASCII);
+        assertEquals(2, rejected.size());
+        assertTrue(rejected.get(0).startsWith("2,"));
+        assertTrue(rejected.get(1).startsWith("3,"));
+        assertEquals(2, job.getRows());
+        assertEquals(2, job.getRejectedRows());
+        assertEquals(15200, job.getSumCents());
+
+        job.run(input, output, rejects);
+
+        assertEquals(Arrays.asList("05:00 PM,09:00 PM,02:00 AM,104.00", "10:00 PM,09:00 PM,02:00 AM,48.00"),
+                Files.readAllLines(output, StandardCharsets.US_ASCII));
+        assertEquals(15200, job.getSumCents());
+    }
+
+    @Test
+    public void testRunLastLineWithoutNewline() throws IOException {
+        Files.write(input, "05:00 PM,09:00 PM,11:00 PM\r\n05:00 PM,09:00 PM,08:00 PM".getBytes(StandardCharsets.US_ASCII));
+
+        BatchBillingJob job = new BatchBillingJob();
+        job.run(input, output, rejects);
+
+        assertEquals(Arrays.asList("05:00 PM,09:00 PM,11:00 PM,64.00", "05:00 PM,09:00 PM,08:00 PM,36.00"),
+                Files.readAllLines(output, StandardCharsets.US_ASCII));
+        assertEquals(0, Files.size(rejects));
+    }
+
+    @Test
+    public void testRunRejectsMinutesPastTheWindow() throws IOException {
+        Files.write(input, Arrays.asList(
+                "05:00 PM,09:00 PM,04:30 AM",
+                "05:00 PM,12:30 AM,02:00 AM",
+                "05:00 PM,12:00 AM,04:00 AM"), StandardCharsets.US_ASCII);
+
+        BatchBillingJob job = new BatchBillingJob();
+        job.run(input, output, rejects);
+
+        assertEquals(Arrays.asList("05:00 PM,12:00 AM,04:00 AM,148.00"),
+                Files.readAllLines(output, StandardCharsets.US_ASCII));
+        List<String> rejected = Files.readAllLines(rejects, StandardCharsets.US_ASCII);
+        assertEquals(2, rejected.size());
+        assertTrue(rejected.get(0).startsWith("1,End time is outside of the allowed hours."));
+        assertTrue(rejected.get(1).startsWith("2,Bedtime is outside of the allowed hours."));
+    }
+
+    @Test
+    public void testRunRejectsPartHours() throws IOException {
+        Files.write(input, Arrays.asList("05:30 PM,09:00 PM,02:15 AM", "05:00 PM,09:00 PM,02:00 AM"),
+                StandardCharsets.US_ASCII);
+
+        BatchBillingJob job = new BatchBillingJob();
+        job.run(input, output, rejects);
+
+        assertEquals(Arrays.asList("05:00 PM,09:00 PM,02:00 AM,104.00"),
+                Files.readAllLines(output, StandardCharsets.US_ASCII));
+        assertEquals(Arrays.asList("1,Times must be on the hour.,05:30 PM,09:00 PM,02:15 AM"),
+                Files.readAllLines(rejects, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void testRunJournalsTotalsWithTheirScheduleVersion() throws IOException {
+        Files.write(input, Arrays.asList("05:00 PM,09:00 PM,02:00 AM", "10:00 PM,09:00 PM,02:00 AM"),
+                StandardCharsets.US_ASCII);
+        RateSchedule schedule = new RateSchedule("2024-06", RateSchedule.DEFAULT.getBands());
+        List<String> journaled = new ArrayList<>();
+
+        try (JobLedger ledger = new JobLedger(folder.newFolder("ledger").toPath(), 16, 1)) {
+            BatchBillingJob job = new BatchBillingJob(new CalculatorService(schedule));
+            job.setLedger(ledger);
+            job.run(input, output, rejects);
+            ledger.replay((sequence, reference, timestampMillis, startHour, bedHour, endHour, totalCents, version) ->
+                    journaled.add(reference + "," + totalCents + "," + version));
+        }
+
+        assertEquals(Arrays.asList("1,10400,2024-06", "2,4800,2024-06"), journaled);
+    }
+}
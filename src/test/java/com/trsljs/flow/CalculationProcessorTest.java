@@ -0,0 +1,113 @@
+package com.trsljs.flow;
+
+import com.trsljs.service.CalculatorService;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class CalculationProcessorTest {
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testPublishesTotalsInOrder() throws InterruptedException {
+        CalculationProcessor processor = new CalculationProcessor(new CalculatorService(), executor, 16, 4);
+        CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+        processor.subscribe(subscriber);
+
+        try (SubmissionPublisher<ShiftEvent> feed = new SubmissionPublisher<>(executor, 16)) {
+            feed.subscribe(processor);
+            feed.submit(new ShiftEvent(1, 17, 21, 2));
+            feed.submit(new ShiftEvent(2, 2, 21, 18));
+            feed.submit(new ShiftEvent(3, 22, 21, 2));
+        }
+
+        assertTrue(subscriber.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(3, subscriber.totals.size());
+        assertEquals(1, subscriber.totals.get(0).getEvent().getReference());
+        assertEquals(10400, subscriber.totals.get(0).getTotalCents());
+        assertFalse(subscriber.totals.get(1).isValid());
+        assertEquals("Start Time must be before End Time.", subscriber.totals.get(1).getError());
+        assertEquals(4800, subscriber.totals.get(2).getTotalCents());
+        assertEquals("default", subscriber.totals.get(2).getScheduleVersion());
+        assertEquals(3, processor.getReceivedEvents());
+        assertEquals(3, processor.getPublishedTotals());
+        assertEquals(1, processor.getInvalidEvents());
+    }
+
+    @Test
+    public void testSlowSubscriberBoundsBufferedEvents() throws InterruptedException {
+        int events = 2000;
+        CalculationProcessor processor = new CalculationProcessor(new CalculatorService(), executor, 32, 8);
+        CollectingSubscriber subscriber = new CollectingSubscriber(1);
+        processor.subscribe(subscriber);
+
+        try (SubmissionPublisher<ShiftEvent> feed = new SubmissionPublisher<>(executor, 64)) {
+            feed.subscribe(processor);
+            for (int i = 0; i < events; i++) {
+                feed.submit(new ShiftEvent(i, 17, 21, 2));
+                assertTrue(processor.getQueueDepth() <= 32);
+            }
+        }
+
+        assertTrue(subscriber.completed.await(10, TimeUnit.SECONDS));
+        assertEquals(events, subscriber.totals.size());
+        assertTrue(processor.getMaxQueueDepth() <= 32);
+        assertTrue(processor.getBatches() >= events / 8);
+        for (int i = 0; i < events; i++) {
+            assertEquals(i, subscriber.totals.get(i).getEvent().getReference());
+        }
+    }
+
+    /**
+     * Subscriber requesting a fixed number of totals at a time.
+     */
+    private static class CollectingSubscriber implements Flow.Subscriber<ShiftTotal> {
+        private final long demand;
+        private final List<ShiftTotal> totals = new CopyOnWriteArrayList<>();
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private Flow.Subscription subscription;
+
+        CollectingSubscriber(long demand) {
+            this.demand = demand;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(demand);
+        }
+
+        @Override
+        public void onNext(ShiftTotal total) {
+            totals.add(total);
+            if (demand != Long.MAX_VALUE) {
+                subscription.request(demand);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            completed.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.trsljs.history;
+
+import com.trsljs.service.CalculatorService;
+import com.trsljs.service.RateSchedule;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class JobHistoryStoreTest {
+
+    @Test
+    public void testAggregates() {
+        JobHistoryStore store = new JobHistoryStore(new CalculatorService(), 2, 2);
+
+        assertEquals(10400, store.append(17, 21, 2));
+        assertEquals(4800, store.append(22, 21, 2));
+        assertEquals(3600, store.append(17, 21, 20));
+
+        assertEquals(3, store.size());
+        assertEquals(18800, store.totalPayCents());
+        assertArrayEquals(new long[] {4800 + 3600, 2400 + 1600, 3200 + 3200}, store.payCentsByBand());
+        assertArrayEquals(new long[] {4 + 3, 3 + 2, 2 + 2}, store.hoursByBand());
+        long[] lengths = store.shiftLengthHistogram();
+        assertEquals(1, lengths[9]);
+        assertEquals(1, lengths[4]);
+        assertEquals(1, lengths[3]);
+        assertEquals(2, store.startHourHistogram()[17]);
+        assertEquals(1, store.startHourHistogram()[22]);
+    }
+
+    @Test
+    public void testTotalPayMatchesCalculator() {
+        CalculatorService service = new CalculatorService();
+        JobHistoryStore store = new JobHistoryStore(service, 2, 1000);
+        Random random = new Random(7);
+        long expected = 0;
+        for (int i = 0; i < 10_000; i++) {
+            int start = random.nextInt(11);
+            int startHour = (17 + start) % 24;
+            int bedHour = (17 + random.nextInt(8)) % 24;
+            int endHour = (17 + start + random.nextInt(12 - start)) % 24;
+            expected += service.calculateJobTotalCents(startHour, bedHour, endHour);
+            store.append(startHour, bedHour, endHour);
+        }
+
+        assertEquals(expected, store.totalPayCents());
+        long[] bands = store.payCentsByBand();
+        assertEquals(expected, bands[RateSchedule.BAND_UNTIL_BEDTIME] + bands[RateSchedule.BAND_BEDTIME_UNTIL_MIDNIGHT]
+                + bands[RateSchedule.BAND_MIDNIGHT_UNTIL_END]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAppendInvalidJob() {
+        new JobHistoryStore(new CalculatorService()).append(2, 21, 18);
+    }
+}
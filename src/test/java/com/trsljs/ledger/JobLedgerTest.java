@@ -0,0 +1,211 @@
+package com.trsljs.ledger;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class JobLedgerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testAppendAndReplayAfterReopen() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        try (JobLedger ledger = new JobLedger(directory, 4, 1)) {
+            assertEquals(1, ledger.append(11, 17, 21, 2, 10400, "default"));
+            assertEquals(2, ledger.append(12, 22, 21, 2, 4800, "2"));
+            assertTrue(ledger.awaitDurable(2, 5000));
+        }
+
+        try (JobLedger ledger = new JobLedger(directory, 4, 1)) {
+            assertEquals(2, ledger.getLastSequence());
+            assertEquals(12, ledger.getLastReference());
+            List<long[]> records = replay(ledger);
+            assertEquals(2, records.size());
+            assertArrayEquals(new long[] {1, 11, 17, 21, 2, 10400}, records.get(0));
+            assertArrayEquals(new long[] {2, 12, 22, 21, 2, 4800}, records.get(1));
+            assertEquals(Arrays.asList("default", "2"), replayVersions(ledger));
+            assertEquals(3, ledger.append(13, 17, 21, 20, 3600, "default"));
+        }
+    }
+
+    @Test
+    public void testRollsOverSegments() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        try (JobLedger ledger = new JobLedger(directory, 4, 1)) {
+            for (int i = 1; i <= 10; i++) {
+                ledger.append(i, 17, 21, 2, 10400, "default");
+            }
+            ledger.sync();
+            assertEquals(10, ledger.getDurableSequence());
+        }
+
+        assertEquals(3, segments(directory).size());
+        try (JobLedger ledger = new JobLedger(directory, 4, 1)) {
+            assertEquals(10, ledger.getLastSequence());
+            assertEquals(10, replay(ledger).size());
+        }
+    }
+
+    @Test
+    public void testRecoversFromTornRecord() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        try (JobLedger ledger = new JobLedger(directory, 4, 1)) {
+            for (int i = 1; i <= 6; i++) {
+                ledger.append(i, 17, 21, 2, 10400, "default");
+            }
+        }
+        crashBeforeCheckpoint(directory);
+        corrupt(directory.resolve("ledger-00000000000000000005.log"), JobLedger.RECORD_SIZE + 30);
+
+        try (JobLedger ledger = new JobLedger(directory, 4, 1)) {
+            assertEquals(5, ledger.getLastSequence());
+            assertEquals(5, replay(ledger).size());
+            assertEquals(6, ledger.append(60, 17, 21, 2, 10400, "default"));
+        }
+        try (JobLedger ledger = new JobLedger(directory, 4, 1)) {
+            List<long[]> records = replay(ledger);
+            assertEquals(6, records.size());
+            assertEquals(60, records.get(5)[1]);
+        }
+    }
+
+    @Test
+    public void testRecoversTornTailOfRolledOverSegment() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        try (JobLedger ledger = new JobLedger(directory, 4, 1)) {
+            for (int i = 1; i <= 10; i++) {
+                ledger.append(i, 17, 21, 2, 10400, "default");
+            }
+        }
+        crashBeforeCheckpoint(directory);
+        corrupt(directory.resolve("ledger-00000000000000000001.log"), 3 * JobLedger.RECORD_SIZE + 30);
+
+        try (JobLedger ledger = new JobLedger(directory, 4, 1)) {
+            assertEquals(3, ledger.getLastSequence());
+            assertEquals(3, replay(ledger).size());
+            assertEquals(1, segments(directory).size());
+            assertEquals(4, ledger.append(40, 17, 21, 2, 10400, "default"));
+            assertEquals(5, ledger.append(50, 17, 21, 2, 10400, "default"));
+        }
+        try (JobLedger ledger = new JobLedger(directory, 4, 1)) {
+            List<long[]> records = replay(ledger);
+            assertEquals(5, records.size());
+            assertEquals(50, records.get(4)[1]);
+        }
+    }
+
+    @Test
+    public void testRefusesToDiscardCommittedSegments() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        try (JobLedger ledger = new JobLedger(directory, 4, 1)) {
+            for (int i = 1; i <= 10; i++) {
+                ledger.append(i, 17, 21, 2, 10400, "default");
+            }
+        }
+        corrupt(directory.resolve("ledger-00000000000000000001.log"), 2 * JobLedger.RECORD_SIZE);
+
+        try {
+            new JobLedger(directory, 4, 1).close();
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("ledger-00000000000000000001.log"));
+        }
+        assertEquals(3, segments(directory).size());
+    }
+
+    @Test
+    public void testContinuesAfterPrunedSegmentsAndIgnoresOtherFiles() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        try (JobLedger ledger = new JobLedger(directory, 4, 1)) {
+            for (int i = 1; i <= 10; i++) {
+                ledger.append(i, 17, 21, 2, 10400, "default");
+            }
+        }
+        Files.delete(directory.resolve("ledger-00000000000000000001.log"));
+        Files.createFile(directory.resolve("ledger-backup.log"));
+
+        try (JobLedger ledger = new JobLedger(directory, 4, 1)) {
+            assertEquals(10, ledger.getLastSequence());
+            List<long[]> records = replay(ledger);
+            assertEquals(6, records.size());
+            assertEquals(5, records.get(0)[0]);
+            assertEquals(11, ledger.append(11, 17, 21, 2, 10400, "default"));
+        }
+        assertTrue(Files.exists(directory.resolve("ledger-backup.log")));
+    }
+
+    @Test
+    public void testRefusesGapBetweenSegments() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        try (JobLedger ledger = new JobLedger(directory, 4, 1)) {
+            for (int i = 1; i <= 10; i++) {
+                ledger.append(i, 17, 21, 2, 10400, "default");
+            }
+        }
+        Files.delete(directory.resolve("ledger-00000000000000000005.log"));
+
+        try {
+            new JobLedger(directory, 4, 1).close();
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("ledger-00000000000000000009.log"));
+        }
+        assertEquals(2, segments(directory).size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testAppendAfterClose() throws Exception {
+        JobLedger ledger = new JobLedger(folder.getRoot().toPath(), 4, 1);
+        ledger.close();
+        ledger.append(1, 17, 21, 2, 10400, "default");
+    }
+
+    private static List<long[]> replay(JobLedger ledger) throws IOException {
+        List<long[]> records = new ArrayList<>();
+        ledger.replay((sequence, reference, timestampMillis, startHour, bedHour, endHour, totalCents, version) ->
+                records.add(new long[] {sequence, reference, startHour, bedHour, endHour, totalCents}));
+        return records;
+    }
+
+    private static List<String> replayVersions(JobLedger ledger) throws IOException {
+        List<String> versions = new ArrayList<>();
+        ledger.replay((sequence, reference, timestampMillis, startHour, bedHour, endHour, totalCents, version) ->
+                versions.add(version));
+        return versions;
+    }
+
+    private static List<Path> segments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().matches("ledger-\\d+\\.log"))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Leaves the ledger as a crash would before any flush recorded its checkpoint.
+     */
+    private static void crashBeforeCheckpoint(Path directory) throws IOException {
+        Files.delete(directory.resolve(JobLedger.CHECKPOINT_FILE));
+    }
+
+    private static void corrupt(Path file, long offset) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(offset);
+            raf.write(raf.read() ^ 0xFF);
+        }
+    }
+}
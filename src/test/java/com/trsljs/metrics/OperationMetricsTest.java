@@ -0,0 +1,73 @@
+package com.trsljs.metrics;
+
+import com.trsljs.service.CalculatorService;
+import com.trsljs.util.JobValidator;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class OperationMetricsTest {
+
+    @Test
+    public void testBucketUpperBoundContainsValue() {
+        long[] values = {0, 1, 7, 8, 9, 15, 16, 17, 100, 1000, 123456789, Long.MAX_VALUE};
+        for (long value : values) {
+            int bucket = OperationMetrics.bucketOf(value);
+            assertTrue(value + " above bucket", value <= OperationMetrics.upperBoundOf(bucket));
+            assertTrue(value + " below bucket", bucket == 0 || value > OperationMetrics.upperBoundOf(bucket - 1));
+        }
+    }
+
+    @Test
+    public void testPercentiles() {
+        OperationMetrics metrics = new OperationMetrics("test", Long.MAX_VALUE);
+        long now = System.nanoTime();
+        for (int i = 0; i < 99; i++) {
+            metrics.record(now, false);
+        }
+        metrics.record(now - 10_000_000L, true);
+
+        assertEquals(100, metrics.getInvocations());
+        assertEquals(1, metrics.getErrors());
+        assertTrue(metrics.getP50Nanos() < 10_000_000L);
+        assertTrue(metrics.getMaxNanos() >= 10_000_000L);
+        assertTrue(metrics.percentileNanos(1.0) >= 10_000_000L);
+
+        metrics.reset();
+        assertEquals(0, metrics.getInvocations());
+        assertEquals(0, metrics.getP99Nanos());
+    }
+
+    @Test
+    public void testCalculatorServiceRecordsCallsAndErrorsOnlyWhenEnabled() {
+        CalculatorService service = new CalculatorService();
+        long invocations = CalculatorMetrics.CALCULATE_JOB_TOTAL_CENTS.getInvocations();
+        long errors = CalculatorMetrics.CALCULATE_JOB_TOTAL_CENTS.getErrors();
+
+        service.calculateJobTotalCents(17, 21, 2);
+        try {
+            service.calculateJobTotalCents(2, 21, 17);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        int recorded = CalculatorMetrics.ENABLED ? 1 : 0;
+        assertEquals(invocations + 2 * recorded, CalculatorMetrics.CALCULATE_JOB_TOTAL_CENTS.getInvocations());
+        assertEquals(errors + recorded, CalculatorMetrics.CALCULATE_JOB_TOTAL_CENTS.getErrors());
+    }
+
+    @Test
+    public void testJobValidatorRecordsJobsAndRejectionsOnlyWhenEnabled() {
+        long invocations = CalculatorMetrics.VALIDATE_JOB.getInvocations();
+        long errors = CalculatorMetrics.VALIDATE_JOB.getErrors();
+
+        JobValidator.validate(17, 21, 2);
+        JobValidator.validateMinutes(2 * 60, 21 * 60, 17 * 60);
+        JobValidator.validateWholeHours(17 * 60 + 30, 21 * 60, 2 * 60);
+
+        int recorded = CalculatorMetrics.ENABLED ? 1 : 0;
+        assertEquals(invocations + 3 * recorded, CalculatorMetrics.VALIDATE_JOB.getInvocations());
+        assertEquals(errors + 2 * recorded, CalculatorMetrics.VALIDATE_JOB.getErrors());
+    }
+}
@@ -0,0 +1,98 @@
+package com.trsljs.payroll;
+
+import com.trsljs.service.CalculatorService;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PayrollEngineTest {
+    private static final LocalTime NINE_PM = LocalTime.of(21, 0);
+
+    private final CalculatorService calculatorService = new CalculatorService();
+    private final PayrollEngine engine = new PayrollEngine(calculatorService);
+
+    @Test
+    public void testSingleNightMatchesCalculator() {
+        List<PayrollLine> lines = engine.calculate(Collections.singletonList(new Engagement("ann",
+                LocalDateTime.of(2024, 3, 6, 17, 0), LocalDateTime.of(2024, 3, 7, 2, 0), NINE_PM)));
+
+        assertEquals(1, lines.size());
+        assertEquals("ann", lines.get(0).getSitterId());
+        assertEquals(LocalDate.of(2024, 3, 4), lines.get(0).getWeekStart());
+        assertEquals(1, lines.get(0).getNights());
+        assertEquals(9 * 60, lines.get(0).getWorkedMinutes());
+        assertEquals(calculatorService.calculateJobTotalCents(17, 21, 2), lines.get(0).getTotalCents());
+    }
+
+    @Test
+    public void testMultiNightEngagementSplitsIntoNightsAndWeeks() {
+        // Saturday 6 PM until Tuesday 10 AM: three full windows after the first hour, the days are not paid.
+        List<PayrollLine> lines = engine.calculate(Collections.singletonList(new Engagement("bob",
+                LocalDateTime.of(2024, 3, 9, 18, 0), LocalDateTime.of(2024, 3, 12, 10, 0), NINE_PM)));
+
+        int fullNight = calculatorService.calculateJobTotalCents(17, 21, 4);
+        assertEquals(2, lines.size());
+        assertEquals(LocalDate.of(2024, 3, 4), lines.get(0).getWeekStart());
+        assertEquals(2, lines.get(0).getNights());
+        assertEquals(calculatorService.calculateJobTotalCents(18, 21, 4) + fullNight, lines.get(0).getTotalCents());
+        assertEquals(LocalDate.of(2024, 3, 11), lines.get(1).getWeekStart());
+        assertEquals(1, lines.get(1).getNights());
+        assertEquals(fullNight, lines.get(1).getTotalCents());
+    }
+
+    @Test
+    public void testOverlappingEngagementsArePaidOnce() {
+        List<PayrollLine> lines = engine.calculate(Arrays.asList(
+                new Engagement("cat", LocalDateTime.of(2024, 3, 6, 20, 0), LocalDateTime.of(2024, 3, 7, 2, 0), NINE_PM),
+                new Engagement("cat", LocalDateTime.of(2024, 3, 6, 17, 0), LocalDateTime.of(2024, 3, 6, 22, 0), NINE_PM),
+                new Engagement("cat", LocalDateTime.of(2024, 3, 7, 2, 0), LocalDateTime.of(2024, 3, 7, 3, 0), NINE_PM)));
+
+        assertEquals(1, lines.size());
+        assertEquals(10 * 60, lines.get(0).getWorkedMinutes());
+        assertEquals(calculatorService.calculateJobTotalCents(17, 21, 3), lines.get(0).getTotalCents());
+    }
+
+    @Test
+    public void testPartialHoursAreRoundedUp() {
+        List<PayrollLine> lines = engine.calculate(Collections.singletonList(new Engagement("dan",
+                LocalDateTime.of(2024, 3, 6, 17, 0), LocalDateTime.of(2024, 3, 6, 19, 10), NINE_PM)));
+
+        assertEquals(130, lines.get(0).getWorkedMinutes());
+        assertEquals(3 * 1200, lines.get(0).getTotalCents());
+    }
+
+    @Test
+    public void testManySittersAreOrderedAndIndependent() {
+        List<Engagement> engagements = new ArrayList<>();
+        for (int sitter = 999; sitter >= 0; sitter--) {
+            for (int day = 0; day < 7; day++) {
+                engagements.add(new Engagement(String.format("s%04d", sitter), LocalDateTime.of(2024, 3, 4 + day, 17, 0),
+                        LocalDateTime.of(2024, 3, 5 + day, 2, 0), NINE_PM));
+            }
+        }
+
+        List<PayrollLine> lines = engine.calculate(engagements);
+
+        assertEquals(1000, lines.size());
+        for (int sitter = 0; sitter < 1000; sitter++) {
+            PayrollLine line = lines.get(sitter);
+            assertEquals(String.format("s%04d", sitter), line.getSitterId());
+            assertEquals(7, line.getNights());
+            assertEquals(7 * 10400, line.getTotalCents());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBedtimeAfterMidnight() {
+        engine.calculate(Collections.singletonList(new Engagement("eve",
+                LocalDateTime.of(2024, 3, 6, 17, 0), LocalDateTime.of(2024, 3, 7, 2, 0), LocalTime.of(1, 0))));
+    }
+}
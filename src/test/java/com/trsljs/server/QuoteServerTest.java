@@ -0,0 +1,106 @@
+package com.trsljs.server;
+
+import com.trsljs.service.CalculatorService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class QuoteServerTest {
+    private QuoteServer server;
+
+    @Before
+    public void startServer() throws IOException {
+        server = new QuoteServer(new CalculatorService(), 0);
+        server.start();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testQuote() throws IOException {
+        HttpURLConnection connection = open("/quote?start=05%3A00+PM&bed=09%3A00+PM&end=02%3A00+AM");
+
+        assertEquals(200, connection.getResponseCode());
+        assertEquals("{\"totalCents\":10400,\"total\":\"104.00\",\"scheduleVersion\":\"default\"}\n",
+                read(connection.getInputStream()));
+    }
+
+    @Test
+    public void testQuoteStartAfterEnd() throws IOException {
+        HttpURLConnection connection = open("/quote?start=02%3A00+AM&bed=09%3A00+PM&end=06%3A00+PM");
+
+        assertEquals(400, connection.getResponseCode());
+        assertEquals("Start Time must be before End Time.\n", read(connection.getErrorStream()));
+    }
+
+    @Test
+    public void testQuoteRejectsPartHours() throws IOException {
+        HttpURLConnection connection = open("/quote?start=05%3A30+PM&bed=09%3A00+PM&end=02%3A15+AM");
+
+        assertEquals(400, connection.getResponseCode());
+        assertEquals("Times must be on the hour.\n", read(connection.getErrorStream()));
+    }
+
+    @Test
+    public void testBatchQuote() throws IOException {
+        HttpURLConnection connection = open("/quote/batch");
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write("05:00 PM,09:00 PM,02:00 AM\n05:00 PM,09:00 PM,nope\n".getBytes(StandardCharsets.US_ASCII));
+        }
+
+        assertEquals(200, connection.getResponseCode());
+        assertEquals("05:00 PM,09:00 PM,02:00 AM,104.00\n05:00 PM,09:00 PM,nope,ERROR Invalid time 'nope'.\n",
+                read(connection.getInputStream()));
+    }
+
+    @Test
+    public void testLargeBatchQuoteIsStreamed() throws IOException {
+        int rows = 100_000;
+        HttpURLConnection connection = open("/quote/batch");
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setChunkedStreamingMode(8192);
+        try (OutputStream out = connection.getOutputStream()) {
+            byte[] row = "10:00 PM,09:00 PM,02:00 AM\n".getBytes(StandardCharsets.US_ASCII);
+            for (int i = 0; i < rows; i++) {
+                out.write(row);
+            }
+        }
+
+        assertEquals(200, connection.getResponseCode());
+        assertEquals("chunked", connection.getHeaderField("Transfer-Encoding"));
+        String[] lines = read(connection.getInputStream()).split("\n");
+        assertEquals(rows, lines.length);
+        assertEquals("10:00 PM,09:00 PM,02:00 AM,48.00", lines[rows - 1]);
+    }
+
+    private HttpURLConnection open(String path) throws IOException {
+        return (HttpURLConnection) new URL("http://localhost:" + server.getPort() + path).openConnection();
+    }
+
+    private static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[512];
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, read);
+        }
+        in.close();
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
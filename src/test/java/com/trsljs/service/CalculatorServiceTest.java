@@ -4,8 +4,10 @@ package com.trsljs.service;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.math.RoundingMode;
 import java.text.NumberFormat;
 import java.time.LocalTime;
+import java.util.Random;
 
 import static org.junit.Assert.*;
 
@@ -79,4 +81,137 @@ public class CalculatorServiceTest {
 
         assertFalse(testService.isStartTimeAfterEndTime(startTime, endTime));
     }
+
+    @Test
+    public void testCalculateJobTotalCentsThreeTimePeriods() {
+        assertEquals(10400, testService.calculateJobTotalCents(17, 21, 2));
+    }
+
+    @Test
+    public void testCalculateJobTotalCentsStartAfterMidnight() {
+        assertEquals(3200, testService.calculateJobTotalCents(1, 21, 3));
+    }
+
+    @Test
+    public void testCalculateJobTotalCentsMatchesFormattedTotal() {
+        for (int start = 17; start <= 28; start++) {
+            for (int end = start; end <= 28; end++) {
+                LocalTime startTime = LocalTime.of(start % 24, 0);
+                LocalTime bedtime = LocalTime.of(22, 0);
+                LocalTime endTime = LocalTime.of(end % 24, 0);
+                int totalCents = testService.calculateJobTotalCents(start % 24, 22, end % 24);
+                assertEquals(format.format(totalCents / 100), testService.calculateJobTotal(startTime, bedtime, endTime));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCalculateJobTotalCentsStartAfterEnd() {
+        testService.calculateJobTotalCents(2, 21, 18);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCalculateJobTotalCentsOutsideWindow() {
+        testService.calculateJobTotalCents(12, 21, 2);
+    }
+
+    @Test
+    public void testCalculateJobTotalsMatchesSingleCalculation() {
+        int jobs = 100000;
+        int[] startHours = new int[jobs];
+        int[] bedHours = new int[jobs];
+        int[] endHours = new int[jobs];
+        Random random = new Random(42);
+        for (int i = 0; i < jobs; i++) {
+            int start = random.nextInt(11);
+            startHours[i] = (17 + start) % 24;
+            bedHours[i] = (17 + random.nextInt(8)) % 24;
+            endHours[i] = (17 + start + 1 + random.nextInt(11 - start)) % 24;
+        }
+
+        BatchResult result = testService.calculateJobTotals(startHours, bedHours, endHours);
+
+        long expectedSum = 0;
+        for (int i = 0; i < jobs; i++) {
+            int expectedTotal = testService.calculateJobTotalCents(startHours[i], bedHours[i], endHours[i]);
+            assertEquals(expectedTotal, result.getTotalCents(i));
+            expectedSum += expectedTotal;
+        }
+        assertEquals(jobs, result.size());
+        assertEquals(expectedSum, result.getSumCents());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCalculateJobTotalsInvalidJob() {
+        testService.calculateJobTotals(new int[] {17, 2}, new int[] {21, 21}, new int[] {2, 18});
+    }
+
+    @Test
+    public void testCalculateMinuteJobTotalCentsMatchesWholeHours() {
+        for (int start = 17; start <= 28; start++) {
+            for (int bed = 17; bed <= 24; bed++) {
+                for (int end = start; end <= 28; end++) {
+                    int expectedTotal = testService.calculateJobTotalCents(start % 24, bed % 24, end % 24);
+                    assertEquals(expectedTotal, testService.calculateMinuteJobTotalCents(start % 24 * 60,
+                            bed % 24 * 60, end % 24 * 60, 1, RoundingMode.UNNECESSARY));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCalculateMinuteJobTotalCentsPartialHours() {
+        // 05:00 PM to 09:00 PM awake, 09:00 PM to 09:20 PM asleep at $8 an hour.
+        assertEquals(4800 + 267, testService.calculateMinuteJobTotalCents(17 * 60, 21 * 60, 21 * 60 + 20, 1,
+                RoundingMode.UNNECESSARY));
+    }
+
+    @Test
+    public void testCalculateMinuteJobTotalCentsRounding() {
+        int start = 17 * 60;
+        int bed = 21 * 60;
+        int end = 17 * 60 + 50;
+        assertEquals(900, testService.calculateMinuteJobTotalCents(start, bed, end, 15, RoundingMode.FLOOR));
+        assertEquals(1200, testService.calculateMinuteJobTotalCents(start, bed, end, 15, RoundingMode.CEILING));
+        assertEquals(900, testService.calculateMinuteJobTotalCents(start, bed, start + 52, 15, RoundingMode.HALF_UP));
+        assertEquals(1200, testService.calculateMinuteJobTotalCents(start, bed, start + 53, 15, RoundingMode.HALF_UP));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testCalculateMinuteJobTotalCentsUnnecessaryRounding() {
+        testService.calculateMinuteJobTotalCents(17 * 60, 21 * 60, 17 * 60 + 50, 15, RoundingMode.UNNECESSARY);
+    }
+
+    @Test
+    public void testFindLatestEndHourAgreesWithCalculation() {
+        for (int start = 0; start < 11; start++) {
+            for (int bed = 0; bed < 8; bed++) {
+                int startHour = (17 + start) % 24;
+                int bedHour = (17 + bed) % 24;
+                for (int budgetCents = 0; budgetCents <= 20000; budgetCents += 100) {
+                    int expected = -1;
+                    for (int end = start + 1; end <= 11; end++) {
+                        if (testService.calculateJobTotalCents(startHour, bedHour, (17 + end) % 24) <= budgetCents) {
+                            expected = (17 + end) % 24;
+                        }
+                    }
+                    assertEquals(expected, testService.findLatestEndHour(startHour, bedHour, budgetCents));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFindLatestEndTime() {
+        assertEquals(LocalTime.of(2, 0), testService.findLatestEndTime(LocalTime.of(17, 0), LocalTime.of(21, 0), 10400));
+        assertEquals(LocalTime.of(1, 0), testService.findLatestEndTime(LocalTime.of(17, 0), LocalTime.of(21, 0), 10399));
+        assertEquals(LocalTime.of(4, 0), testService.findLatestEndTime(LocalTime.of(17, 0), LocalTime.of(21, 0), 100000));
+        assertNull(testService.findLatestEndTime(LocalTime.of(1, 0), LocalTime.of(21, 0), 1599));
+        assertNull(testService.findLatestEndTime(LocalTime.of(4, 0), LocalTime.of(21, 0), 100000));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFindLatestEndHourNegativeBudget() {
+        testService.findLatestEndHour(17, 21, -1);
+    }
 }
@@ -0,0 +1,278 @@
+package com.trsljs.service;
+
+import com.trsljs.metrics.CalculatorMetrics;
+import com.trsljs.util.JobValidator;
+import com.trsljs.util.TimeUtilities;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeFalse;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Compares every engine calculating totals with {@link LegacyCalculator} over every job selectable from
+ * {@link TimeUtilities}, and over random jobs to the minute, then times the engines against it.
+ * <p>
+ * The timing pass depends on the machine, so it only runs with {@code -Dbabysitter.regression=true}, which the
+ * {@code regression} profile of the pom sets. It fails if an engine's time relative to the legacy calculation is
+ * more than {@code babysitter.regression.threshold} (1.0, i.e. twice as slow, by default) above its ratio in
+ * {@code engine-baseline.properties}, measured with metrics disabled. Run with
+ * {@code -Dbabysitter.regression.record=<file>} to write the measured ratios to a file to update the baseline from.
+ */
+public class EngineDifferentialTest {
+    private static final int MINUTE_CASES = 200000;
+    private static final int[] INCREMENTS = {1, 5, 15, 30, 60};
+    private static final RoundingMode[] ROUNDINGS = {RoundingMode.FLOOR, RoundingMode.CEILING, RoundingMode.UP,
+            RoundingMode.DOWN, RoundingMode.HALF_UP, RoundingMode.HALF_DOWN, RoundingMode.HALF_EVEN};
+
+    private static final int TIMING_PASSES = 200;
+    private static final int TIMING_SAMPLES = 7;
+
+    /**
+     * An engine calculating the total in cents of a job of whole hours.
+     */
+    private interface Engine {
+        int totalCents(int startHour, int bedHour, int endHour);
+    }
+
+    private final CalculatorService service = new CalculatorService();
+    private final LegacyCalculator legacy = new LegacyCalculator();
+
+    /**
+     * Every engine giving the total of a single job, by name. Add new engines here.
+     */
+    private Map<String, Engine> engines() {
+        RateSchedule schedule = service.getRateSchedule();
+        int[] startHours = new int[1];
+        int[] bedHours = new int[1];
+        int[] endHours = new int[1];
+        int[] totalsCents = new int[1];
+        int[] bandHours = new int[RateSchedule.BANDS];
+        int[] bandCents = new int[RateSchedule.BANDS];
+
+        Map<String, Engine> engines = new LinkedHashMap<>();
+        engines.put("calculateJobTotalCents", service::calculateJobTotalCents);
+        engines.put("quoteJobTotal", (start, bed, end) -> service.quoteJobTotal(start, bed, end).getTotalCents());
+        engines.put("calculateMinuteJobTotalCents", (start, bed, end) -> service.calculateMinuteJobTotalCents(
+                start * 60, bed * 60, end * 60, 60, RoundingMode.CEILING));
+        engines.put("calculateJobTotals", (start, bed, end) -> service.calculateJobTotals(new int[]{start},
+                new int[]{bed}, new int[]{end}).getTotalCents(0));
+        engines.put("jobTotalsCents", (start, bed, end) -> {
+            startHours[0] = start;
+            bedHours[0] = bed;
+            endHours[0] = end;
+            schedule.jobTotalsCents(startHours, bedHours, endHours, totalsCents, 0, 1);
+            return totalsCents[0];
+        });
+        engines.put("splitIntoBands", (start, bed, end) -> {
+            schedule.splitIntoBands(start, bed, end, bandHours, bandCents);
+            return bandCents[0] + bandCents[1] + bandCents[2];
+        });
+        return engines;
+    }
+
+    @Test
+    public void testEveryEngineMatchesLegacyForEverySelectableJob() {
+        Map<String, Engine> engines = engines();
+        for (LocalTime[] job : selectableJobs()) {
+            LocalTime start = job[0];
+            LocalTime bed = job[1];
+            LocalTime end = job[2];
+            String name = start + "," + bed + "," + end;
+            boolean valid = !legacy.isStartTimeAfterEndTime(start, end);
+
+            assertEquals(name, valid, JobValidator.validate(start, bed, end).isValid());
+            assertEquals(name, valid, !service.isStartTimeAfterEndTime(start, end));
+            if (valid) {
+                int expected = legacy.jobTotalCents(start, bed, end);
+                assertEquals(name, legacy.calculateJobTotal(start, bed, end),
+                        service.calculateJobTotal(start, bed, end));
+                for (Map.Entry<String, Engine> engine : engines.entrySet()) {
+                    assertEquals(engine.getKey() + " " + name, expected,
+                            engine.getValue().totalCents(start.getHour(), bed.getHour(), end.getHour()));
+                }
+            } else {
+                for (Map.Entry<String, Engine> engine : engines.entrySet()) {
+                    try {
+                        engine.getValue().totalCents(start.getHour(), bed.getHour(), end.getHour());
+                        fail(engine.getKey() + " accepted " + name);
+                    } catch (IllegalArgumentException e) {
+                        assertTrue(engine.getKey() + " " + e.getMessage(),
+                                e.getMessage().endsWith("Start Time must be before End Time."));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testBatchMatchesLegacyForEverySelectableJob() {
+        List<LocalTime[]> jobs = new ArrayList<>();
+        for (LocalTime[] job : selectableJobs()) {
+            if (!legacy.isStartTimeAfterEndTime(job[0], job[2])) {
+                jobs.add(job);
+            }
+        }
+        int[] startHours = new int[jobs.size()];
+        int[] bedHours = new int[jobs.size()];
+        int[] endHours = new int[jobs.size()];
+        for (int i = 0; i < jobs.size(); i++) {
+            startHours[i] = jobs.get(i)[0].getHour();
+            bedHours[i] = jobs.get(i)[1].getHour();
+            endHours[i] = jobs.get(i)[2].getHour();
+        }
+
+        BatchResult result = service.calculateJobTotals(startHours, bedHours, endHours);
+
+        long expectedSum = 0;
+        for (int i = 0; i < jobs.size(); i++) {
+            int expected = legacy.jobTotalCents(jobs.get(i)[0], jobs.get(i)[1], jobs.get(i)[2]);
+            assertEquals(expected, result.getTotalCents(i));
+            expectedSum += expected;
+        }
+        assertEquals(expectedSum, result.getSumCents());
+    }
+
+    @Test
+    public void testMinuteEngineMatchesLegacyForRandomJobs() {
+        int window = TimeUtilities.ADJUSTED_END_TIME_MAXIMUM.getHour() * 60;
+        int midnight = TimeUtilities.ADJUSTED_MIDNIGHT.getHour() * 60;
+        int offset = TimeUtilities.START_TIME_MINIMUM.getHour() * 60;
+        Random random = new Random(20261017L);
+        for (int i = 0; i < MINUTE_CASES; i++) {
+            int start = random.nextInt(window + 1);
+            int end = start + random.nextInt(window - start + 1);
+            int startMinute = (start + offset) % (24 * 60);
+            int bedMinute = (random.nextInt(midnight + 1) + offset) % (24 * 60);
+            int endMinute = (end + offset) % (24 * 60);
+            int increment = INCREMENTS[random.nextInt(INCREMENTS.length)];
+            RoundingMode rounding = ROUNDINGS[random.nextInt(ROUNDINGS.length)];
+
+            assertEquals(startMinute + "," + bedMinute + "," + endMinute + " " + increment + " " + rounding,
+                    legacy.minuteJobTotalCents(startMinute, bedMinute, endMinute, increment, rounding),
+                    service.calculateMinuteJobTotalCents(startMinute, bedMinute, endMinute, increment, rounding));
+        }
+    }
+
+    @Test
+    public void testEnginesNotSlowerThanBaseline() throws IOException {
+        assumeTrue(Boolean.getBoolean("babysitter.regression"));
+        assumeFalse(CalculatorMetrics.ENABLED);
+        double threshold = Double.parseDouble(System.getProperty("babysitter.regression.threshold", "1.0"));
+        Properties baseline = new Properties();
+        try (InputStream in = getClass().getResourceAsStream("engine-baseline.properties")) {
+            baseline.load(in);
+        }
+
+        List<LocalTime[]> jobs = new ArrayList<>();
+        for (LocalTime[] job : selectableJobs()) {
+            if (!legacy.isStartTimeAfterEndTime(job[0], job[2])) {
+                jobs.add(job);
+            }
+        }
+        int[][] hours = new int[jobs.size()][];
+        for (int i = 0; i < jobs.size(); i++) {
+            hours[i] = new int[]{jobs.get(i)[0].getHour(), jobs.get(i)[1].getHour(), jobs.get(i)[2].getHour()};
+        }
+        Pass legacyPass = () -> {
+            long sum = 0;
+            for (LocalTime[] job : jobs) {
+                sum += legacy.jobTotalCents(job[0], job[1], job[2]);
+            }
+            return sum;
+        };
+
+        Properties measured = new Properties();
+        List<String> regressions = new ArrayList<>();
+        for (Map.Entry<String, Engine> engine : engines().entrySet()) {
+            Engine calculation = engine.getValue();
+            double ratio = timeRatio(() -> {
+                long sum = 0;
+                for (int[] job : hours) {
+                    sum += calculation.totalCents(job[0], job[1], job[2]);
+                }
+                return sum;
+            }, legacyPass);
+            measured.setProperty(engine.getKey(), String.format("%.4f", ratio));
+            String expected = baseline.getProperty(engine.getKey());
+            if (expected != null && ratio > Double.parseDouble(expected) * (1 + threshold)) {
+                regressions.add(String.format("%s took %.4f of the legacy time, baseline %s", engine.getKey(),
+                        ratio, expected));
+            }
+        }
+
+        String record = System.getProperty("babysitter.regression.record");
+        if (record != null) {
+            try (Writer out = Files.newBufferedWriter(Paths.get(record), StandardCharsets.UTF_8)) {
+                measured.store(out, "Time of each engine relative to the legacy calculation");
+            }
+        }
+        assertTrue("Engines slower than the baseline by more than " + threshold * 100 + "%: " + regressions,
+                regressions.isEmpty());
+    }
+
+    /**
+     * Every combination of the start times, bedtimes and end times offered by {@link TimeUtilities}.
+     */
+    private static List<LocalTime[]> selectableJobs() {
+        List<LocalTime[]> jobs = new ArrayList<>();
+        for (String start : TimeUtilities.getValidStartTimes()) {
+            for (String bed : TimeUtilities.getValidBedtimes()) {
+                for (String end : TimeUtilities.getValidEndTimes()) {
+                    if (!start.isEmpty() && !bed.isEmpty() && !end.isEmpty()) {
+                        jobs.add(new LocalTime[]{LocalTime.parse(start, TimeUtilities.TIME_FORMATTER),
+                                LocalTime.parse(bed, TimeUtilities.TIME_FORMATTER),
+                                LocalTime.parse(end, TimeUtilities.TIME_FORMATTER)});
+                    }
+                }
+            }
+        }
+        return jobs;
+    }
+
+    private interface Pass {
+        long run();
+    }
+
+    /**
+     * Times a pass over the jobs against the legacy pass, warming both up first and alternating their samples so
+     * both see the same conditions, and returns the ratio of their fastest samples.
+     */
+    private static double timeRatio(Pass pass, Pass legacyPass) {
+        long blackhole = 0;
+        for (int i = 0; i < TIMING_PASSES; i++) {
+            blackhole += pass.run() + legacyPass.run();
+        }
+        long fastest = Long.MAX_VALUE;
+        long legacyFastest = Long.MAX_VALUE;
+        for (int sample = 0; sample < TIMING_SAMPLES; sample++) {
+            long startNanos = System.nanoTime();
+            for (int i = 0; i < TIMING_PASSES; i++) {
+                blackhole += pass.run();
+            }
+            fastest = Math.min(fastest, System.nanoTime() - startNanos);
+            startNanos = System.nanoTime();
+            for (int i = 0; i < TIMING_PASSES; i++) {
+                blackhole += legacyPass.run();
+            }
+            legacyFastest = Math.min(legacyFastest, System.nanoTime() - startNanos);
+        }
+        assertTrue(blackhole > 0);
+        return (double) fastest / legacyFastest;
+    }
+}
@@ -0,0 +1,95 @@
+package com.trsljs.service;
+
+import com.trsljs.util.TimeUtilities;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.NumberFormat;
+import java.time.LocalTime;
+
+/**
+ * The calculation as first written, kept as the reference every faster engine is compared with. The arithmetic of
+ * {@link #calculateJobTotal(LocalTime, LocalTime, LocalTime)} is unchanged from the original
+ * {@link CalculatorService}; {@link #minuteJobTotalCents(int, int, int, int, RoundingMode)} applies the same steps to
+ * minutes, working in {@link BigDecimal} so it shares no code with the tables.
+ */
+class LegacyCalculator {
+    private static final int START_TO_BEDTIME_RATE = 12;
+    private static final int BEDTIME_TO_MIDNIGHT_RATE = 8;
+    private static final int MIDNIGHT_TO_END_RATE = 16;
+
+    String calculateJobTotal(LocalTime startTime, LocalTime bedtime, LocalTime endTime) {
+        NumberFormat format = NumberFormat.getCurrencyInstance();
+
+        return format.format(pay(startTime, bedtime, endTime));
+    }
+
+    int jobTotalCents(LocalTime startTime, LocalTime bedtime, LocalTime endTime) {
+        return pay(startTime, bedtime, endTime) * 100;
+    }
+
+    boolean isStartTimeAfterEndTime(LocalTime startTime, LocalTime endTime) {
+        return TimeUtilities.adjustTimePeriod(startTime).isAfter(TimeUtilities.adjustTimePeriod(endTime));
+    }
+
+    int minuteJobTotalCents(int startMinute, int bedMinute, int endMinute, int incrementMinutes,
+                            RoundingMode rounding) {
+        int start = TimeUtilities.adjustMinute(startMinute);
+        int bed = TimeUtilities.adjustMinute(bedMinute);
+        int end = TimeUtilities.adjustMinute(endMinute);
+        int window = TimeUtilities.ADJUSTED_END_TIME_MAXIMUM.getHour() * 60;
+        int midnight = TimeUtilities.ADJUSTED_MIDNIGHT.getHour() * 60;
+
+        BigDecimal increment = BigDecimal.valueOf(incrementMinutes);
+        int billed = BigDecimal.valueOf(end - start).divide(increment, 0, rounding).multiply(increment).intValue();
+        end = Math.min(start + billed, window);
+
+        if (start > bed) {
+            bed = start;
+        }
+        if (start > midnight) {
+            midnight = start;
+        }
+        if (end < midnight) {
+            midnight = end;
+        }
+        if (end < bed) {
+            bed = end;
+        }
+        BigDecimal pay = BigDecimal.valueOf((long) (bed - start) * START_TO_BEDTIME_RATE
+                + (long) (midnight - bed) * BEDTIME_TO_MIDNIGHT_RATE
+                + (long) (end - midnight) * MIDNIGHT_TO_END_RATE);
+        return pay.multiply(BigDecimal.valueOf(100)).divide(BigDecimal.valueOf(60), 0, RoundingMode.HALF_UP)
+                .intValueExact();
+    }
+
+    private static int pay(LocalTime startTime, LocalTime bedtime, LocalTime endTime) {
+        // Adjust the times to start at midnight to simplify calculations.
+        LocalTime adjustedStartTime = TimeUtilities.adjustTimePeriod(startTime);
+        LocalTime adjustedBedTime = TimeUtilities.adjustTimePeriod(bedtime);
+        LocalTime adjustedEndTime = TimeUtilities.adjustTimePeriod(endTime);
+        LocalTime adjustedMidnight = TimeUtilities.ADJUSTED_MIDNIGHT;
+
+        if (adjustedStartTime.isAfter(adjustedBedTime)) {
+            adjustedBedTime = adjustedStartTime;
+        }
+        if (adjustedStartTime.isAfter(adjustedMidnight)) {
+            adjustedMidnight = adjustedStartTime;
+        }
+        if (adjustedEndTime.isBefore(adjustedMidnight)) {
+            adjustedMidnight = adjustedEndTime;
+        }
+        if (adjustedEndTime.isBefore(adjustedBedTime)) {
+            adjustedBedTime = adjustedEndTime;
+        }
+
+        int hoursUntilBedtime = adjustedBedTime.getHour() - adjustedStartTime.getHour();
+        int hoursBedtimeUntilMidnight = adjustedMidnight.getHour() - adjustedBedTime.getHour();
+        int hoursMidnightUntilEnd = adjustedEndTime.getHour() - adjustedMidnight.getHour();
+
+        int pay = hoursUntilBedtime * START_TO_BEDTIME_RATE;
+        pay += hoursBedtimeUntilMidnight * BEDTIME_TO_MIDNIGHT_RATE;
+        pay += hoursMidnightUntilEnd * MIDNIGHT_TO_END_RATE;
+        return pay;
+    }
+}
@@ -0,0 +1,157 @@
+package com.trsljs.service;
+
+import com.trsljs.util.JobValidation;
+import com.trsljs.util.JobValidator;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class RateScheduleTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testLoadThreeBands() throws IOException {
+        Path file = writeSchedule("version=2",
+                "band.1=05:00 PM,09:00 PM,15.00,10.00",
+                "band.2=09:00 PM,12:00 AM,12.50,8.00",
+                "band.3=12:00 AM,04:00 AM,20,20");
+
+        RateSchedule schedule = RateSchedule.load(file);
+
+        assertEquals("2", schedule.getVersion());
+        assertEquals(3, schedule.getBands().size());
+        // 05:00 PM to 08:00 PM awake at $15, 08:00 PM to midnight asleep at $10 then $8, midnight to 02:00 AM at $20.
+        assertEquals(3 * 1500 + 1000 + 3 * 800 + 2 * 2000, schedule.jobTotalCents(17, 20, 2));
+        // Awake past 09:00 PM is paid $12.50.
+        assertEquals(4 * 1500 + 1250 + 2 * 800, schedule.jobTotalCents(17, 22, 0));
+    }
+
+    @Test
+    public void testReloadRecordsVersion() throws IOException {
+        CalculatorService service = new CalculatorService();
+        assertEquals("default", service.quoteJobTotal(17, 21, 2).getScheduleVersion());
+
+        service.reloadRateSchedule(writeSchedule("version=summer",
+                "band.1=05:00 PM,12:00 AM,24,16",
+                "band.2=12:00 AM,04:00 AM,32,32"));
+
+        JobTotal total = service.quoteJobTotal(17, 21, 2);
+        assertEquals(20800, total.getTotalCents());
+        assertEquals("summer", total.getScheduleVersion());
+        assertEquals("summer", service.calculateJobTotals(new int[] {17}, new int[] {21}, new int[] {2})
+                .getScheduleVersion());
+    }
+
+    @Test
+    public void testRejectsJobsAsJobValidatorDoes() {
+        RateSchedule schedule = RateSchedule.DEFAULT;
+        for (int startHour = -1; startHour <= 24; startHour++) {
+            for (int bedHour = -1; bedHour <= 24; bedHour++) {
+                for (int endHour = -1; endHour <= 24; endHour++) {
+                    int start = startHour;
+                    int bed = bedHour;
+                    int end = endHour;
+                    JobValidation validation = JobValidator.validate(start, bed, end);
+                    assertEquals(validation.getMessage(), rejection(() -> schedule.jobTotalCents(start, bed, end)));
+                    int startMinute = start * 60;
+                    int bedMinute = bed * 60;
+                    int endMinute = end * 60;
+                    assertEquals(JobValidator.validateMinutes(startMinute, bedMinute, endMinute).getMessage(),
+                            rejection(() -> schedule.minuteJobTotalCents(startMinute, bedMinute, endMinute, 15,
+                                    RoundingMode.CEILING)));
+                }
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLoadGapBetweenBands() throws IOException {
+        RateSchedule.load(writeSchedule("version=3",
+                "band.1=05:00 PM,09:00 PM,12,8",
+                "band.2=10:00 PM,04:00 AM,16,16"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLoadBandsEndEarly() throws IOException {
+        RateSchedule.load(writeSchedule("version=4", "band.1=05:00 PM,12:00 AM,12,8"));
+    }
+
+    @Test
+    public void testJobTotalsCentsMatchesLookUpForEveryJob() {
+        for (RateSchedule schedule : Arrays.asList(RateSchedule.DEFAULT, new RateSchedule("split", Arrays.asList(
+                new RateBand(LocalTime.of(17, 0), LocalTime.of(21, 0), 1500, 1000),
+                new RateBand(LocalTime.of(21, 0), LocalTime.of(4, 0), 2000, 2000))))) {
+            int jobs = 24 * 24 * 24;
+            int[] startHours = new int[jobs];
+            int[] bedHours = new int[jobs];
+            int[] endHours = new int[jobs];
+            int valid = 0;
+            for (int start = 0; start < 24; start++) {
+                for (int bed = 0; bed < 24; bed++) {
+                    for (int end = 0; end < 24; end++) {
+                        try {
+                            schedule.jobTotalCents(start, bed, end);
+                        } catch (IllegalArgumentException e) {
+                            continue;
+                        }
+                        startHours[valid] = start;
+                        bedHours[valid] = bed;
+                        endHours[valid] = end;
+                        valid++;
+                    }
+                }
+            }
+
+            int[] totalsCents = new int[valid];
+            long sumCents = schedule.jobTotalsCents(startHours, bedHours, endHours, totalsCents, 0, valid);
+
+            long expectedSumCents = 0;
+            for (int i = 0; i < valid; i++) {
+                assertEquals(schedule.jobTotalCents(startHours[i], bedHours[i], endHours[i]), totalsCents[i]);
+                expectedSumCents += totalsCents[i];
+            }
+            assertEquals(expectedSumCents, sumCents);
+        }
+    }
+
+    @Test
+    public void testJobTotalsCentsReportsFirstInvalidJob() {
+        int[] totalsCents = new int[4];
+        try {
+            RateSchedule.DEFAULT.jobTotalsCents(new int[] {17, 17, 24, 2}, new int[] {21, 21, 21, 21},
+                    new int[] {2, 2, 2, 18}, totalsCents, 0, 4);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("Job 2: Start time is outside of the allowed hours.", e.getMessage());
+        }
+    }
+
+    private Path writeSchedule(String... lines) throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.write(file, Arrays.asList(lines), StandardCharsets.UTF_8);
+        return file;
+    }
+
+    /**
+     * @return the message of the {@link IllegalArgumentException} thrown by the calculation, or null if it succeeds.
+     */
+    private static String rejection(Runnable calculation) {
+        try {
+            calculation.run();
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.trsljs.service;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.NumberFormat;
+import java.util.Arrays;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+public class TotalFormatterTest {
+    private static final Locale[] LOCALES = {Locale.US, Locale.UK, Locale.GERMANY, Locale.FRANCE, Locale.JAPAN,
+            Locale.forLanguageTag("hi-IN"), Locale.forLanguageTag("de-CH")};
+
+    @Test
+    public void testMatchesNumberFormat() throws IOException {
+        RateSchedule schedule = new CalculatorService().getRateSchedule();
+        for (Locale locale : LOCALES) {
+            TotalFormatter formatter = schedule.getTotalFormatter(locale);
+            NumberFormat format = NumberFormat.getCurrencyInstance(locale);
+            for (int start = 0; start < 12; start++) {
+                for (int bed = 0; bed < 8; bed++) {
+                    for (int end = start; end < 12; end++) {
+                        int totalCents = schedule.jobTotalCents((start + 17) % 24, (bed + 17) % 24, (end + 17) % 24);
+                        String expected = format.format(totalCents / 100.0);
+
+                        assertEquals(expected, formatter.format(totalCents));
+
+                        StringBuilder builder = new StringBuilder();
+                        formatter.formatTo(totalCents, builder);
+                        assertEquals(expected, builder.toString());
+
+                        ByteBuffer buffer = ByteBuffer.allocate(64);
+                        formatter.formatTo(totalCents, buffer);
+                        assertArrayEquals(expected.getBytes(StandardCharsets.UTF_8),
+                                Arrays.copyOf(buffer.array(), buffer.position()));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testUnreachableTotalFallsBack() {
+        TotalFormatter formatter = new CalculatorService().getTotalFormatter(Locale.US);
+
+        assertEquals("$0.01", formatter.format(1));
+        assertEquals("$1,000,000.00", formatter.format(100000000));
+        assertEquals("-$5.00", formatter.format(-500));
+    }
+
+    @Test
+    public void testFormatsLargeSparseTotals() {
+        TotalFormatter formatter = new TotalFormatter(Locale.US, new int[] {250_000_000, 500, 250_000_000});
+
+        assertEquals("$2,500,000.00", formatter.format(250_000_000));
+        assertEquals("$5.00", formatter.format(500));
+        assertEquals("$0.01", formatter.format(1));
+    }
+
+    @Test
+    public void testFormatterSharedPerLocale() {
+        RateSchedule schedule = new CalculatorService().getRateSchedule();
+
+        assertSame(schedule.getTotalFormatter(Locale.US), schedule.getTotalFormatter(Locale.US));
+        assertSame(formatterTotal(schedule), formatterTotal(schedule));
+    }
+
+    private static String formatterTotal(RateSchedule schedule) {
+        return schedule.getTotalFormatter(Locale.GERMANY).format(schedule.jobTotalCents(17, 21, 2));
+    }
+}
@@ -0,0 +1,97 @@
+package com.trsljs.util;
+
+import com.trsljs.service.CalculatorService;
+import com.trsljs.service.RateSchedule;
+import org.junit.Test;
+
+import java.time.LocalTime;
+
+import static org.junit.Assert.*;
+
+public class JobValidatorTest {
+
+    @Test
+    public void testAgreesWithRateScheduleForEveryHour() {
+        RateSchedule schedule = new CalculatorService().getRateSchedule();
+        for (int start = 0; start < 24; start++) {
+            for (int bed = 0; bed < 24; bed++) {
+                for (int end = 0; end < 24; end++) {
+                    String expected = null;
+                    try {
+                        schedule.jobTotalCents(start, bed, end);
+                    } catch (IllegalArgumentException e) {
+                        expected = e.getMessage();
+                    }
+                    JobValidation validation = JobValidator.validate(start, bed, end);
+                    String job = start + "," + bed + "," + end;
+
+                    assertEquals(job, expected, validation.getMessage());
+                    assertEquals(job, expected == null, JobValidator.isValid(start, bed, end));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testHoursOutsideTheDay() {
+        assertEquals(JobValidation.START_OUTSIDE_WINDOW, JobValidator.validate(-1, 21, 2));
+        assertEquals(JobValidation.BEDTIME_OUTSIDE_WINDOW, JobValidator.validate(17, 1000, 2));
+        assertEquals(JobValidation.END_OUTSIDE_WINDOW, JobValidator.validate(17, 21, Integer.MIN_VALUE));
+        assertFalse(JobValidator.isValid(17, 21, 24));
+    }
+
+    @Test
+    public void testValidateMinutesRejectsStartAfterEndInSameHour() {
+        assertEquals(JobValidation.START_AFTER_END, JobValidator.validateMinutes(17 * 60 + 30, 21 * 60, 17 * 60 + 10));
+        assertEquals(JobValidation.VALID, JobValidator.validateMinutes(17 * 60 + 10, 21 * 60, 17 * 60 + 30));
+        assertEquals(JobValidation.START_AFTER_END,
+                JobValidator.validate(LocalTime.of(2, 0), null, LocalTime.of(23, 0)));
+        assertEquals(JobValidation.VALID, JobValidator.validate(LocalTime.of(23, 0), null, LocalTime.of(2, 0)));
+    }
+
+    @Test
+    public void testValidateMinutesRejectsTimesPastTheWindow() {
+        assertEquals(JobValidation.END_OUTSIDE_WINDOW, JobValidator.validateMinutes(17 * 60, 21 * 60, 4 * 60 + 30));
+        assertEquals(JobValidation.START_OUTSIDE_WINDOW,
+                JobValidator.validateMinutes(4 * 60 + 30, 21 * 60, 4 * 60 + 30));
+        assertEquals(JobValidation.BEDTIME_OUTSIDE_WINDOW, JobValidator.validateMinutes(17 * 60, 30, 2 * 60));
+        assertEquals(JobValidation.START_OUTSIDE_WINDOW, JobValidator.validateMinutes(16 * 60 + 59, 21 * 60, 2 * 60));
+        assertEquals(JobValidation.VALID, JobValidator.validateMinutes(17 * 60, 0, 4 * 60));
+    }
+
+    @Test
+    public void testValidateWholeHoursRejectsPartHours() {
+        assertEquals(JobValidation.PARTIAL_HOUR,
+                JobValidator.validateWholeHours(17 * 60 + 30, 21 * 60, 2 * 60 + 15));
+        assertEquals(JobValidation.PARTIAL_HOUR, JobValidator.validateWholeHours(17 * 60, 21 * 60 + 1, 2 * 60));
+        assertEquals(JobValidation.START_AFTER_END,
+                JobValidator.validateWholeHours(2 * 60 + 30, 21 * 60, 23 * 60));
+        assertEquals(JobValidation.VALID, JobValidator.validateWholeHours(17 * 60, 21 * 60, 2 * 60));
+    }
+
+    @Test
+    public void testValidateMinutesAgreesWithHoursForWholeHours() {
+        for (int start = 0; start < 24; start++) {
+            for (int bed = 0; bed < 24; bed++) {
+                for (int end = 0; end < 24; end++) {
+                    assertEquals(start + "," + bed + "," + end, JobValidator.validate(start, bed, end),
+                            JobValidator.validateMinutes(start * 60, bed * 60, end * 60));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testValidateBulk() {
+        int[] startHours = {17, 2, 12, 18};
+        int[] bedHours = {21, 21, 21, 3};
+        int[] endHours = {2, 23, 2, 4};
+        byte[] codes = new byte[4];
+
+        assertEquals(1, JobValidator.validate(startHours, bedHours, endHours, codes, 0, 4));
+        assertEquals(JobValidation.VALID, JobValidation.ofCode(codes[0]));
+        assertEquals(JobValidation.START_AFTER_END, JobValidation.ofCode(codes[1]));
+        assertEquals(JobValidation.START_OUTSIDE_WINDOW, JobValidation.ofCode(codes[2]));
+        assertEquals(JobValidation.BEDTIME_OUTSIDE_WINDOW, JobValidation.ofCode(codes[3]));
+    }
+}
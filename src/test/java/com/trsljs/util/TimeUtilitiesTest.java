@@ -0,0 +1,79 @@
+package com.trsljs.util;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+
+import static org.junit.Assert.*;
+
+public class TimeUtilitiesTest {
+
+    @Test
+    public void testParseTimeMatchesFormatterForEveryMinute() {
+        for (int minuteOfDay = 0; minuteOfDay < 24 * 60; minuteOfDay++) {
+            LocalTime time = TimeUtilities.toLocalTime(minuteOfDay);
+            assertEquals(minuteOfDay, TimeUtilities.parseTime(time.format(TimeUtilities.TIME_FORMATTER)));
+        }
+    }
+
+    @Test
+    public void testParseTimeAcceptsSameTextAsFormatter() {
+        String[] texts = {"05:00 PM", "12:00 AM", "12:30 PM", "00:30 AM", "00:30 PM", "13:00 PM", "05:60 PM",
+                "05:00 pm", "5:00 PM", "05:00  PM", "05:00 PM ", "05-00 PM", "05:00", "", "05:00 XM"};
+        for (String text : texts) {
+            LocalTime expected = null;
+            try {
+                expected = LocalTime.parse(text, TimeUtilities.TIME_FORMATTER);
+            } catch (DateTimeParseException e) {
+                // expected stays null
+            }
+            int result = TimeUtilities.tryParseTime(text);
+            if (expected == null) {
+                assertTrue(text, result < 0);
+            } else {
+                assertEquals(text, expected, TimeUtilities.toLocalTime(result));
+            }
+        }
+    }
+
+    @Test
+    public void testTryParseTimeByteBufferSlice() {
+        ByteBuffer buffer = ByteBuffer.wrap("05:00 PM,09:30 PM".getBytes(StandardCharsets.US_ASCII));
+
+        assertEquals(17 * 60, TimeUtilities.tryParseTime(buffer, 0, 8));
+        assertEquals(21 * 60 + 30, TimeUtilities.tryParseTime(buffer, 9, 8));
+        assertTrue(TimeUtilities.tryParseTime(buffer, 1, 8) < 0);
+        assertEquals(0, buffer.position());
+    }
+
+    @Test(expected = DateTimeParseException.class)
+    public void testParseTimeInvalid() {
+        TimeUtilities.parseTime("25:00 PM");
+    }
+
+    @Test
+    public void testFormatTimeMatchesFormatterForEveryMinute() {
+        for (int minuteOfDay = 0; minuteOfDay < 24 * 60; minuteOfDay++) {
+            LocalTime time = TimeUtilities.toLocalTime(minuteOfDay);
+            assertEquals(time.format(TimeUtilities.TIME_FORMATTER), TimeUtilities.formatTime(minuteOfDay));
+        }
+    }
+
+    @Test
+    public void testValidTimes() {
+        assertEquals(11, TimeUtilities.VALID_START_TIMES.size());
+        assertEquals(LocalTime.of(17, 0), TimeUtilities.VALID_START_TIMES.get(0));
+        assertEquals(LocalTime.of(3, 0), TimeUtilities.VALID_START_TIMES.get(10));
+        assertEquals(8, TimeUtilities.VALID_BEDTIMES.size());
+        assertEquals(LocalTime.MIDNIGHT, TimeUtilities.VALID_BEDTIMES.get(7));
+        assertEquals(11, TimeUtilities.VALID_END_TIMES.size());
+        assertEquals(LocalTime.of(18, 0), TimeUtilities.VALID_END_TIMES.get(0));
+        assertEquals(LocalTime.of(4, 0), TimeUtilities.VALID_END_TIMES.get(10));
+        assertEquals("05:00 PM", TimeUtilities.getValidStartTimes().get(1));
+        assertEquals("12:00 AM", TimeUtilities.getValidBedtimes().get(8));
+        assertEquals("04:00 AM", TimeUtilities.getValidEndTimes().get(11));
+    }
+}